@@ -0,0 +1,115 @@
+package com.portability.users_service.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.portability.users_service.UsersServiceApplication;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.User;
+import com.portability.users_service.model.dto.CustomerResponse;
+
+/**
+ * Synthetic customers and an application context backed by an in-memory H2
+ * database, shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String[] FIRST_NAMES = { "Ana", "Luis", "María", "José", "Carmen", "Jorge", "Lucía", "Pedro",
+            "Sofía", "Miguel", "Elena", "Diego", "Valeria", "Andrés", "Paula", "Ricardo" };
+    static final String[] LAST_NAMES = { "García", "Hernández", "López", "Martínez", "González", "Pérez",
+            "Rodríguez", "Sánchez", "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Reyes", "Jiménez" };
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    static Customer customer(long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName(FIRST_NAMES[(int) (id % FIRST_NAMES.length)]);
+        customer.setLastName(LAST_NAMES[(int) (id / FIRST_NAMES.length % LAST_NAMES.length)]);
+        customer.setEmail(email(id));
+        customer.setPhoneNumber(phoneNumber(id));
+        customer.setPhoneKey(520000000000L + 5500000000L + id);
+        customer.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        customer.setUpdatedAt(customer.getCreatedAt());
+        return customer;
+    }
+
+    static CustomerResponse response(long id) {
+        Customer customer = customer(id);
+        return new CustomerResponse(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                customer.getEmail(), customer.getPhoneNumber(), customer.getUpdatedAt());
+    }
+
+    static String email(long id) {
+        return "customer" + id + "@example.com";
+    }
+
+    static String phoneNumber(long id) {
+        return "+52" + (5500000000L + id);
+    }
+
+    /**
+     * Start the service without web server, Eureka, Flyway, background
+     * indexes, peer cache invalidation or cached filter pages, against a
+     * fresh in-memory database
+     */
+    static ConfigurableApplicationContext start(String name) {
+        SpringApplication application = new SpringApplication(UsersServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // Command-line arguments, so they win over the placeholders in application.yml
+        return application.run(
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.flyway.enabled=false",
+                "--eureka.client.enabled=false",
+                "--server.port=0",
+                "--customer.search-index.enabled=false",
+                "--customer.existence-filter.enabled=false",
+                "--customer.cache-invalidation.enabled=false",
+                // Measure the filter queries, not repeated hits on identical pages
+                "--customer.cache.specs.customerFilterResults.expire-after-write=0s",
+                "--logging.level.root=WARN");
+    }
+
+    /**
+     * Insert customers with ids {@code 1..rows} in JDBC batches
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= rows; id++) {
+            Customer customer = customer(id);
+            Timestamp timestamp = Timestamp.valueOf(customer.getCreatedAt());
+            batch.add(new Object[] { id, customer.getFirstName(), customer.getLastName(), customer.getEmail(),
+                    customer.getPhoneNumber(), customer.getPhoneKey(), timestamp, timestamp,
+                    User.normalize(customer.getFirstName()), User.normalize(customer.getLastName()),
+                    User.normalize(customer.getEmail()) });
+            if (batch.size() == INSERT_BATCH_SIZE || id == rows) {
+                // Schema comes from Hibernate here, not Flyway, so the normalized columns are plain
+                jdbcTemplate.batchUpdate("INSERT INTO customers (id, first_name, last_name, email, phone_number, "
+                        + "phone_key, created_at, updated_at, first_name_norm, last_name_norm, email_norm) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // The indexes the migrations would have built
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_customers_phone_key ON customers (phone_key)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_customers_updated_at_id ON customers (updated_at, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_customers_first_name_norm ON customers (first_name_norm)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_customers_last_name_norm ON customers (last_name_norm)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_customers_email_norm ON customers (email_norm)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
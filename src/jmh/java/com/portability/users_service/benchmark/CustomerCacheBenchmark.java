@@ -0,0 +1,111 @@
+package com.portability.users_service.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import com.portability.users_service.cache.CustomerCache;
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link CustomerCache} hits and writes from many threads. Misses are served
+ * by an in-memory stand-in for the repository so only the cache is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerCacheBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int keys;
+
+    private CustomerCache cache;
+
+    @Setup
+    public void setUp() {
+        // Large enough that every key stays resident
+        CustomerCacheProperties properties = new CustomerCacheProperties();
+        properties.getDefaults().setMaximumWeight(DataSize.ofMegabytes(256));
+        cache = new CustomerCache(syntheticRepo(), properties,
+                new CaffeineCacheManager(), new SimpleMeterRegistry(), 500);
+        for (long id = 1; id <= keys; id++) {
+            cache.put(BenchmarkData.response(id));
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public CustomerResponse getById() {
+        return cache.getById(ThreadLocalRandom.current().nextLong(1, keys + 1));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public CustomerResponse getByEmail() {
+        return cache.getByEmail(BenchmarkData.email(ThreadLocalRandom.current().nextLong(1, keys + 1)));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public CustomerResponse readWriteGet() {
+        return cache.getById(ThreadLocalRandom.current().nextLong(1, keys + 1));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWritePut() {
+        cache.put(BenchmarkData.response(ThreadLocalRandom.current().nextLong(1, keys + 1)));
+    }
+
+    /**
+     * Repository that answers the cache loader's queries from
+     * {@link BenchmarkData}; every other method is unsupported
+     */
+    @SuppressWarnings("unchecked")
+    private static CustomerRepo syntheticRepo() {
+        return (CustomerRepo) Proxy.newProxyInstance(CustomerRepo.class.getClassLoader(),
+                new Class<?>[] { CustomerRepo.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "findResponseById" -> BenchmarkData.response((Long) args[0]);
+                    case "findResponsesByIdIn" -> ((Collection<Long>) args[0]).stream()
+                            .map(BenchmarkData::response).toList();
+                    case "findResponseByEmail" -> BenchmarkData.response(idOf((String) args[0]));
+                    case "findResponsesByEmailIn" -> ((Collection<String>) args[0]).stream()
+                            .map(email -> BenchmarkData.response(idOf(email))).toList();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticCustomerRepo";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static long idOf(String email) {
+        return Long.parseLong(email.substring("customer".length(), email.indexOf('@')));
+    }
+}
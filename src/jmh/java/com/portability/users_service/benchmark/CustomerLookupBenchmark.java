@@ -0,0 +1,138 @@
+package com.portability.users_service.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+import com.portability.users_service.model.enm.MatchMode;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.service.CustomerService;
+
+/**
+ * Lookups and filter pages against an in-memory H2 database seeded with
+ * {@code rows} synthetic customers. Repository benchmarks measure the query
+ * alone; service benchmarks include the caches in front of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerLookupBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepo repo;
+    private CustomerService service;
+    private CustomerFilterRequest lastNameFilter;
+    private CustomerFilterRequest searchFilter;
+    private CustomerFilterRequest emailExactFilter;
+    private CustomerFilterRequest emailPrefixFilter;
+    private CustomerFilterRequest emailContainsFilter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("lookup" + rows);
+        BenchmarkData.seed(context, rows);
+        repo = context.getBean(CustomerRepo.class);
+        service = context.getBean(CustomerService.class);
+        lastNameFilter = CustomerFilterRequest.builder().lastName("López").build();
+        searchFilter = CustomerFilterRequest.builder().search("customer4242").build();
+        emailExactFilter = CustomerFilterRequest.builder()
+                .email(BenchmarkData.email(4242)).match(MatchMode.EXACT).build();
+        emailPrefixFilter = CustomerFilterRequest.builder().email("customer4242@").match(MatchMode.PREFIX).build();
+        emailContainsFilter = CustomerFilterRequest.builder().email("customer4242@").match(MatchMode.CONTAINS).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer repoFindById() {
+        return repo.findById(randomId()).orElseThrow();
+    }
+
+    @Benchmark
+    public CustomerResponse repoFindResponseById() {
+        return repo.findResponseById(randomId());
+    }
+
+    @Benchmark
+    public CustomerResponse repoFindResponseByEmail() {
+        return repo.findResponseByEmail(BenchmarkData.email(randomId()));
+    }
+
+    @Benchmark
+    public CustomerResponse repoFindResponseByPhoneKey() {
+        return repo.findLatestResponseByPhoneKey(BenchmarkData.customer(randomId()).getPhoneKey());
+    }
+
+    @Benchmark
+    public CustomerResponse serviceGetById() {
+        return service.getCustomerById(randomId()).getBody();
+    }
+
+    @Benchmark
+    public CustomerResponse serviceGetByEmail() {
+        return service.getCustomerByEmail(BenchmarkData.email(randomId())).getBody();
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterLastNameExactCount() {
+        return service.getCustomers(lastNameFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.EXACT);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterLastNameNoCount() {
+        return service.getCustomers(lastNameFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.NONE);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterSearchNoCount() {
+        return service.getCustomers(searchFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.NONE);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterEmailExactNoCount() {
+        return service.getCustomers(emailExactFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.NONE);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterEmailPrefixNoCount() {
+        return service.getCustomers(emailPrefixFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.NONE);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> filterEmailContainsNoCount() {
+        return service.getCustomers(emailContainsFilter, PageRequest.of(0, 20, Sort.by("id")), CountStrategy.NONE);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.portability.users_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.service.CustomerService;
+
+/**
+ * Cost of turning an entity into the response record
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMappingBenchmark {
+
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        customer = BenchmarkData.customer(42);
+    }
+
+    @Benchmark
+    public CustomerResponse mapToResponse() {
+        return CustomerService.mapToResponse(customer);
+    }
+}
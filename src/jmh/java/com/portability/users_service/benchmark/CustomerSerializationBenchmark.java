@@ -0,0 +1,90 @@
+package com.portability.users_service.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * JSON and CBOR encoding of a single customer and of a filter page, and
+ * decoding of the page as a Feign client would, with the same Jackson
+ * version Spring MVC uses. Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerSerializationBenchmark {
+
+    private static final TypeReference<PagedResponse<CustomerResponse>> PAGE_TYPE = new TypeReference<>() {};
+
+    @Param({ "20", "100", "1000" })
+    public int pageSize;
+
+    @Param({ "json", "cbor" })
+    public String format;
+
+    private ObjectMapper mapper;
+    private CustomerResponse customer;
+    private PagedResponse<CustomerResponse> page;
+    private byte[] encodedPage;
+
+    @Setup
+    public void setUp() {
+        mapper = format.equals("cbor") ? CBORMapper.builder().build() : JsonMapper.builder().build();
+        customer = BenchmarkData.response(42);
+        List<CustomerResponse> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(BenchmarkData::response)
+                .toList();
+        page = PagedResponse.<CustomerResponse>builder()
+                .content(content)
+                .page(0)
+                .size(pageSize)
+                .totalElements(1_000_000)
+                .totalPages(1_000_000 / pageSize)
+                .totalStrategy(CountStrategy.EXACT)
+                .first(true)
+                .numberOfElements(pageSize)
+                .build();
+        encodedPage = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d: %d bytes, customer: %d bytes%n",
+                format, pageSize, encodedPage.length, mapper.writeValueAsBytes(customer).length);
+    }
+
+    @Benchmark
+    public byte[] customerResponse() {
+        return mapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] pagedResponse() {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PagedResponse<CustomerResponse> readPagedResponse() {
+        return mapper.readValue(encodedPage, PAGE_TYPE);
+    }
+}
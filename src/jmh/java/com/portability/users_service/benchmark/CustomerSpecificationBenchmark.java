@@ -0,0 +1,76 @@
+package com.portability.users_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.repo.CustomerSpecification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Building the JPA criteria predicate for a filter, without running it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerSpecificationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private CustomerFilterRequest searchFilter;
+    private CustomerFilterRequest allFieldsFilter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("specification");
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        searchFilter = CustomerFilterRequest.builder().search("garcía").build();
+        allFieldsFilter = CustomerFilterRequest.builder()
+                .search("ana").firstName("Ana").lastName("López").email("example.com").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Predicate filterBySearch() {
+        return toPredicate(searchFilter);
+    }
+
+    @Benchmark
+    public Predicate filterByAllFields() {
+        return toPredicate(allFieldsFilter);
+    }
+
+    private Predicate toPredicate(CustomerFilterRequest filter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = criteriaBuilder.createQuery(Customer.class);
+        Root<Customer> root = query.from(Customer.class);
+        return CustomerSpecification.filterBy(filter).toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -1,25 +1,60 @@
 package com.portability.users_service.aspect;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every controller and service call into a per-method latency
+ * histogram tagged with its outcome, published as
+ * {@code customer.method.latency} under {@code /actuator/metrics}.
+ * Arguments and results are only rendered for calls picked by
+ * {@code customer.instrumentation.trace-sample-rate} or when DEBUG is on
+ * for this class, so an ordinary call costs two {@code nanoTime} reads and
+ * a histogram update.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
 
+    private static final int MAX_TRACE_LENGTH = 2000;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @Value("${customer.instrumentation.slow-call-threshold:1s}")
+    private Duration slowCallThreshold;
+
+    @Value("${customer.instrumentation.trace-sample-rate:0.0}")
+    private double traceSampleRate;
+
+    // Resolved on first call; the aspect itself is created before the registry
+    public LoggingAspect(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     // Pointcut para todos los métodos en el paquete controller
     @Pointcut("execution(* com.portability.users_service.controller..*(..))")
     public void controllerPointcut() {}
@@ -28,94 +63,141 @@ public class LoggingAspect {
     @Pointcut("execution(* com.portability.users_service.service..*(..))")
     public void servicePointcut() {}
 
-    // Pointcut para todos los métodos en el paquete config
-    @Pointcut("execution(* com.portability.users_service.config..*(..))")
+    // Pointcut para los métodos @Bean del paquete config; filtros y data sources del
+    // mismo paquete corren en cada request y quedan fuera
+    @Pointcut("execution(@org.springframework.context.annotation.Bean * com.portability.users_service.config..*(..))")
     public void configPointcut() {}
 
-    // Log antes de ejecutar un método
-    @Before("controllerPointcut() || servicePointcut()")
-    public void logBefore(JoinPoint joinPoint) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        Object[] args = joinPoint.getArgs();
-        
-        logger.info("→ Entering method: {}.{}() with arguments: {}", 
-            className, methodName, Arrays.toString(args));
-    }
-
-    // Log después de retornar (exitosamente)
-    @AfterReturning(pointcut = "controllerPointcut() || servicePointcut()", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        
-        logger.info("← Exiting method: {}.{}() with result: {}", 
-            className, methodName, result);
+    @Around("controllerPointcut()")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, "controller");
     }
 
-    // Log después de lanzar una excepción
-    @AfterThrowing(pointcut = "controllerPointcut() || servicePointcut()", throwing = "exception")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable exception) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        
-        logger.error("✗ Exception in method: {}.{}() with message: {}", 
-            className, methodName, exception.getMessage(), exception);
+    @Around("servicePointcut()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, "service");
     }
 
-    // Log para métodos de configuración con medición de tiempo
+    // Log para métodos de configuración con medición de tiempo (solo corren al arrancar)
     @Around("configPointcut()")
     public Object logAroundConfig(ProceedingJoinPoint joinPoint) throws Throwable {
         String className = joinPoint.getSignature().getDeclaringTypeName();
         String methodName = joinPoint.getSignature().getName();
-        
-        logger.info("⚙ Configuration method started: {}.{}()", className, methodName);
-        
-        long startTime = System.currentTimeMillis();
-        
+
+        long startTime = System.nanoTime();
         try {
             Object result = joinPoint.proceed();
-            long endTime = System.currentTimeMillis();
-            
-            logger.info("✓ Configuration method completed: {}.{}() - Time taken: {} ms", 
-                className, methodName, (endTime - startTime));
-            
+            logger.debug("✓ Configuration method completed: {}.{}() - Time taken: {} ms",
+                className, methodName, (System.nanoTime() - startTime) / 1_000_000);
             return result;
         } catch (Throwable throwable) {
-            long endTime = System.currentTimeMillis();
-            logger.error("✗ Configuration method failed: {}.{}() - Time taken: {} ms - Error: {}", 
-                className, methodName, (endTime - startTime), throwable.getMessage());
+            logger.error("✗ Configuration method failed: {}.{}() - Time taken: {} ms - Error: {}",
+                className, methodName, (System.nanoTime() - startTime) / 1_000_000, throwable.getMessage());
             throw throwable;
         }
     }
 
-    // Log para seguimiento de performance en servicios
-    @Around("servicePointcut()")
-    public Object logAroundService(ProceedingJoinPoint joinPoint) throws Throwable {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        
-        long startTime = System.currentTimeMillis();
-        
+    private Object timed(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        boolean trace = logger.isDebugEnabled()
+                || (traceSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < traceSampleRate);
+        if (trace) {
+            logger.info("→ {}.{}() with arguments: {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), abbreviate(Arrays.toString(joinPoint.getArgs())));
+        }
+
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
         try {
             Object result = joinPoint.proceed();
-            long endTime = System.currentTimeMillis();
-            long executionTime = endTime - startTime;
-            
-            if (executionTime > 1000) {
-                logger.warn("⚠ Slow service method: {}.{}() - Time taken: {} ms", 
-                    className, methodName, executionTime);
-            } else {
-                logger.debug("⏱ Service method execution time: {}.{}() - {} ms", 
-                    className, methodName, executionTime);
+            outcome = Outcome.of(result);
+            if (trace) {
+                logger.info("← {}.{}() returned: {}", joinPoint.getSignature().getDeclaringTypeName(),
+                        joinPoint.getSignature().getName(), abbreviate(String.valueOf(result)));
             }
-            
             return result;
+        } catch (ResponseStatusException e) {
+            outcome = Outcome.of(e.getStatusCode().value());
+            throw e;
         } catch (Throwable throwable) {
-            long endTime = System.currentTimeMillis();
-            logger.error("✗ Service method error: {}.{}() - Time taken: {} ms", 
-                className, methodName, (endTime - startTime));
+            logger.error("✗ Exception in method: {}.{}() with message: {}",
+                joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName(),
+                throwable.getMessage());
             throw throwable;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            // Signatures are created per invocation; the Method is the stable key
+            meters.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    method -> new MethodMeters(layer, method))
+                    .timer(outcome)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed > slowCallThreshold.toNanos()) {
+                logger.warn("⚠ Slow {} method: {}.{}() - Time taken: {} ms", layer,
+                    joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName(),
+                    elapsed / 1_000_000);
+            }
+        }
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() <= MAX_TRACE_LENGTH
+                ? value
+                : value.substring(0, MAX_TRACE_LENGTH) + "... (" + value.length() + " chars)";
+    }
+
+    private enum Outcome {
+        SUCCESS, NOT_FOUND, CLIENT_ERROR, ERROR;
+
+        static Outcome of(Object result) {
+            return result instanceof ResponseEntity<?> response ? of(response.getStatusCode().value()) : SUCCESS;
+        }
+
+        static Outcome of(int status) {
+            if (status == 404) {
+                return NOT_FOUND;
+            }
+            if (status >= 500) {
+                return ERROR;
+            }
+            return status >= 400 ? CLIENT_ERROR : SUCCESS;
+        }
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Timers of one method, created on first use of each outcome so the
+     * hot path is an array read instead of a registry lookup
+     */
+    private final class MethodMeters {
+
+        private final String layer;
+        private final String className;
+        private final String methodName;
+        private final Timer[] timers = new Timer[Outcome.values().length];
+
+        MethodMeters(String layer, Method method) {
+            this.layer = layer;
+            this.className = method.getDeclaringClass().getSimpleName();
+            this.methodName = method.getName();
+        }
+
+        Timer timer(Outcome outcome) {
+            Timer timer = timers[outcome.ordinal()];
+            if (timer == null) {
+                timer = Timer.builder("customer.method.latency")
+                        .description("Latency of controller and service methods")
+                        .tag("layer", layer)
+                        .tag("class", className)
+                        .tag("method", methodName)
+                        .tag("outcome", outcome.tag())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry.getObject());
+                // Racing writers get the same Timer back from the registry
+                timers[outcome.ordinal()] = timer;
+            }
+            return timer;
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.portability.users_service.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.portability.users_service.config.ReadWriteRoutingDataSource;
+import com.portability.users_service.config.ReplicaRead;
+
+/**
+ * Runs {@link ReplicaRead} methods inside
+ * {@link ReadWriteRoutingDataSource#readFromReplica}; without a replica
+ * configured the marker has no effect.
+ */
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.portability.users_service.config.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        return ReadWriteRoutingDataSource.readFromReplica(joinPoint::proceed);
+    }
+}
@@ -0,0 +1,299 @@
+package com.portability.users_service.bloom;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.event.PeerCustomersChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.phone.PhoneNumberNormalizer;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.repo.CustomerSpecification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bloom filters over every registered email and normalized phone key, used to
+ * answer lookups for customers that don't exist without a database round trip.
+ * Built from the table once the application is ready, updated on every local
+ * write and from periodic {@code updatedAt} deltas (for writes made by other
+ * instances), and rebuilt on a longer interval so changed emails and phones
+ * stop matching.
+ *
+ * <p>Until the first build finishes every lookup reports "might exist". Writes
+ * on other instances are learned from their cache invalidations: the emails
+ * are added at once, but phone keys only arrive with the next delta, so until
+ * then phone lookups report "might exist" (and, after a peer flush or a missed
+ * batch, email lookups too). Running several instances therefore needs
+ * {@code customer.cache-invalidation} enabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.existence-filter", name = "enabled", havingValue = "true")
+public class CustomerExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerExistenceFilter.class);
+
+    private static final int FETCH_SIZE = 5000;
+    private static final long MIN_EXPECTED_INSERTIONS = 100_000;
+
+    /** Re-read a margin before the watermark so rows committed late aren't skipped */
+    private static final Duration DELTA_OVERLAP = Duration.ofMinutes(1);
+
+    private final CustomerRepo repo;
+    private final PhoneNumberNormalizer normalizer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    private final Counter emailAbsent;
+    private final Counter emailFalsePositives;
+    private final Counter phoneAbsent;
+    private final Counter phoneFalsePositives;
+
+    @Value("${customer.existence-filter.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${customer.existence-filter.growth-headroom:1.5}")
+    private double growthHeadroom;
+
+    private volatile Filters current;
+    /** Filters being rebuilt; local writes go to both so none is lost in the swap */
+    private volatile Filters pending;
+    private volatile LocalDateTime watermark;
+
+    /** Peer writes reported so far, and how many of them the filters had loaded at the last delta */
+    private final AtomicLong peerWrites = new AtomicLong();
+    private final AtomicLong unknownPeerWrites = new AtomicLong();
+    private volatile long loadedPeerWrites;
+    private volatile long loadedUnknownPeerWrites;
+
+    public CustomerExistenceFilter(CustomerRepo repo, PhoneNumberNormalizer normalizer,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repo = repo;
+        this.normalizer = normalizer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.emailAbsent = lookups(meterRegistry, "email", "absent");
+        this.emailFalsePositives = lookups(meterRegistry, "email", "false_positive");
+        this.phoneAbsent = lookups(meterRegistry, "phone", "absent");
+        this.phoneFalsePositives = lookups(meterRegistry, "phone", "false_positive");
+
+        gauges(meterRegistry, "email", Filters::emails, emailAbsent, emailFalsePositives);
+        gauges(meterRegistry, "phone", Filters::phones, phoneAbsent, phoneFalsePositives);
+    }
+
+    /**
+     * False only if no customer has (or recently had) this email
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        if (filters == null || email == null || unknownPeerWrites.get() != loadedUnknownPeerWrites) {
+            return true;
+        }
+        boolean mightContain = filters.emails().mightContain(BloomFilter.hash(email));
+        if (!mightContain) {
+            emailAbsent.increment();
+        }
+        return mightContain;
+    }
+
+    /**
+     * False only if no customer has (or recently had) this normalized phone key
+     */
+    public boolean mightContainPhone(long phoneKey) {
+        Filters filters = current;
+        if (filters == null || phoneKey == PhoneNumberNormalizer.NO_KEY || peerWrites.get() != loadedPeerWrites) {
+            return true;
+        }
+        boolean mightContain = filters.phones().mightContain(BloomFilter.hash(phoneKey));
+        if (!mightContain) {
+            phoneAbsent.increment();
+        }
+        return mightContain;
+    }
+
+    /**
+     * Report that an email the filter let through had no customer
+     */
+    public void recordEmailFalsePositive() {
+        if (current != null) {
+            emailFalsePositives.increment();
+        }
+    }
+
+    /**
+     * Report that a phone key the filter let through had no customer
+     */
+    public void recordPhoneFalsePositive() {
+        if (current != null) {
+            phoneFalsePositives.increment();
+        }
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        long emailHash = event.customer().email() == null ? 0 : BloomFilter.hash(event.customer().email());
+        long phoneKey = normalizer.toKey(event.customer().phoneNumber());
+        add(current, emailHash, phoneKey);
+        add(pending, emailHash, phoneKey);
+    }
+
+    @EventListener
+    public void onPeerCustomersChanged(PeerCustomersChangedEvent event) {
+        if (event.emails() == null) {
+            unknownPeerWrites.incrementAndGet();
+        } else {
+            for (String email : event.emails()) {
+                if (email != null) {
+                    add(current, BloomFilter.hash(email), PhoneNumberNormalizer.NO_KEY);
+                    add(pending, BloomFilter.hash(email), PhoneNumberNormalizer.NO_KEY);
+                }
+            }
+        }
+        peerWrites.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        Thread.ofVirtual().name("customer-existence-filter-bootstrap").start(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${customer.existence-filter.rebuild-interval:1h}",
+            initialDelayString = "${customer.existence-filter.rebuild-interval:1h}")
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            long peerWritesAtStart = peerWrites.get();
+            long unknownPeerWritesAtStart = unknownPeerWrites.get();
+            long expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, (long) (rowCount() * growthHeadroom));
+            Filters fresh = new Filters(
+                    BloomFilter.create(expectedInsertions, falsePositiveProbability),
+                    BloomFilter.create(expectedInsertions, falsePositiveProbability));
+            pending = fresh;
+            load(fresh, Specification.unrestricted());
+            // Rows other instances write while loading are caught by the next delta
+            watermark = startedAt;
+            current = fresh;
+            loaded(peerWritesAtStart, unknownPeerWritesAtStart);
+            logger.info("Customer existence filter built: {} emails, {} phones, ~{} KB in {} ms",
+                    fresh.emails().insertions(), fresh.phones().insertions(),
+                    (fresh.emails().estimatedBytes() + fresh.phones().estimatedBytes()) / 1024,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Customer existence filter build failed; lookups keep going to the database", e);
+        } finally {
+            pending = null;
+            building.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.existence-filter.refresh-interval:10s}")
+    public void applyDelta() {
+        Filters filters = current;
+        LocalDateTime since = watermark;
+        if (filters == null || since == null || building.get()) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long peerWritesAtStart = peerWrites.get();
+        long unknownPeerWritesAtStart = unknownPeerWrites.get();
+        load(filters, CustomerSpecification.updatedAfter(since.minus(DELTA_OVERLAP)));
+        watermark = startedAt;
+        loaded(peerWritesAtStart, unknownPeerWritesAtStart);
+    }
+
+    /**
+     * Peer writes reported before a load started were committed, so the load saw them
+     */
+    private void loaded(long peerWritesAtStart, long unknownPeerWritesAtStart) {
+        loadedPeerWrites = peerWritesAtStart;
+        loadedUnknownPeerWrites = unknownPeerWritesAtStart;
+    }
+
+    private long rowCount() {
+        long estimate = repo.estimateCount();
+        return estimate >= 0 ? estimate : repo.count();
+    }
+
+    private void load(Filters target, Specification<Customer> specification) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Customer> customers = repo.streamAll(specification, Sort.by("id"), FETCH_SIZE)) {
+                customers.forEach(customer -> add(target,
+                        customer.getEmail() == null ? 0 : BloomFilter.hash(customer.getEmail()),
+                        customer.getPhoneKey() != null
+                                ? customer.getPhoneKey()
+                                : normalizer.toKey(customer.getPhoneNumber())));
+            }
+        });
+    }
+
+    private static void add(Filters target, long emailHash, long phoneKey) {
+        if (target == null) {
+            return;
+        }
+        if (emailHash != 0) {
+            target.emails().put(emailHash);
+        }
+        if (phoneKey != PhoneNumberNormalizer.NO_KEY) {
+            target.phones().put(BloomFilter.hash(phoneKey));
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String filter, String result) {
+        return Counter.builder("customer.existence.filter.lookups")
+                .description("Lookups answered as absent by the filter, or let through and found missing")
+                .tag("filter", filter)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void gauges(MeterRegistry meterRegistry, String filter, Function<Filters, BloomFilter> view,
+            Counter absent, Counter falsePositives) {
+        ToDoubleFunction<CustomerExistenceFilter> expected = self -> self.current == null
+                ? 0 : view.apply(self.current).expectedFalsePositiveProbability();
+        Gauge.builder("customer.existence.filter.fpp.expected", this, expected)
+                .description("False-positive probability implied by the filter's size and contents")
+                .tag("filter", filter)
+                .register(meterRegistry);
+        // Among lookups for keys that don't exist, the share the filter failed to reject
+        Gauge.builder("customer.existence.filter.fpp.observed", this, self -> {
+                    double negatives = absent.count() + falsePositives.count();
+                    return negatives == 0 ? 0 : falsePositives.count() / negatives;
+                })
+                .description("Measured false-positive rate of the filter since startup")
+                .tag("filter", filter)
+                .register(meterRegistry);
+        Gauge.builder("customer.existence.filter.bytes", this, self -> self.current == null
+                        ? 0 : view.apply(self.current).estimatedBytes())
+                .description("Heap used by the filter's bit array")
+                .tag("filter", filter)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter phones) {}
+}
@@ -0,0 +1,311 @@
+package com.portability.users_service.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.event.PeerCustomersChangedEvent;
+import com.portability.users_service.model.dto.CacheInvalidationBatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the {@link CustomerCache} of every instance of this service coherent.
+ * Local customer writes are queued, gathered for {@code batch-window} and
+ * sent to each peer listed by the {@link DiscoveryClient}; peers evict the
+ * listed ids and emails.
+ *
+ * <p>Each process numbers its batches from 1 under a random origin id and
+ * repeats the last number as a heartbeat when idle. A receiver that sees a
+ * number jump (a lost batch, a restart it missed) flushes its whole cache
+ * instead of trusting entries it may have missed an invalidation for. The
+ * first message from a peer it hasn't heard from yet usually jumps too (this
+ * instance just started, or the peer did long ago); then the receiver
+ * re-checks its entries against the database instead, so caches warmed from
+ * a snapshot survive startup. A sender whose queue overflows asks every peer
+ * to flush.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.cache-invalidation", name = "enabled", havingValue = "true")
+public class CacheInvalidationBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBroadcaster.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /** Origins silent for this long are forgotten; if they speak again it counts as a gap */
+    private static final long ORIGIN_EXPIRY_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final String origin = UUID.randomUUID().toString();
+    private final CustomerCache cache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationTransport transport;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final Supplier<String> selfInstanceId;
+    private final Duration batchWindow;
+    private final Duration heartbeatInterval;
+    private final int maxBatchSize;
+    private final BlockingQueue<Key> queue;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Map<String, OriginState> origins = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter sent;
+    private final Counter sendFailures;
+    private final Counter received;
+    private final Counter gapFlushes;
+    private final Counter requestedFlushes;
+    private final Counter revalidations;
+
+    private volatile boolean running;
+    private Thread publisher;
+
+    @Autowired
+    public CacheInvalidationBroadcaster(CustomerCache cache, ApplicationEventPublisher eventPublisher,
+            InvalidationTransport transport,
+            DiscoveryClient discoveryClient, ObjectProvider<Registration> registration, MeterRegistry meterRegistry,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${customer.cache-invalidation.batch-window:20ms}") Duration batchWindow,
+            @Value("${customer.cache-invalidation.heartbeat-interval:5s}") Duration heartbeatInterval,
+            @Value("${customer.cache-invalidation.max-batch-size:1000}") int maxBatchSize,
+            @Value("${customer.cache-invalidation.queue-capacity:10000}") int queueCapacity) {
+        this(cache, eventPublisher, transport, discoveryClient, serviceId,
+                () -> {
+                    Registration self = registration.getIfAvailable();
+                    return self == null ? null : self.getInstanceId();
+                },
+                meterRegistry, batchWindow, heartbeatInterval, maxBatchSize, queueCapacity);
+    }
+
+    CacheInvalidationBroadcaster(CustomerCache cache, ApplicationEventPublisher eventPublisher,
+            InvalidationTransport transport, DiscoveryClient discoveryClient, String serviceId, Supplier<String> selfInstanceId,
+            MeterRegistry meterRegistry, Duration batchWindow, Duration heartbeatInterval,
+            int maxBatchSize, int queueCapacity) {
+        this.cache = cache;
+        this.eventPublisher = eventPublisher;
+        this.transport = transport;
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.selfInstanceId = selfInstanceId;
+        this.batchWindow = batchWindow;
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        this.sent = Counter.builder("customer.cache.invalidation.batches").tag("direction", "sent")
+                .description("Invalidation batches and heartbeats delivered to a peer")
+                .register(meterRegistry);
+        this.received = Counter.builder("customer.cache.invalidation.batches").tag("direction", "received")
+                .description("Invalidation batches and heartbeats received from peers")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("customer.cache.invalidation.send.failures")
+                .description("Invalidation batches a peer did not acknowledge")
+                .register(meterRegistry);
+        this.gapFlushes = Counter.builder("customer.cache.invalidation.flushes").tag("reason", "gap")
+                .description("Full cache flushes after a missed invalidation batch")
+                .register(meterRegistry);
+        this.requestedFlushes = Counter.builder("customer.cache.invalidation.flushes").tag("reason", "requested")
+                .description("Full cache flushes requested by a peer whose queue overflowed")
+                .register(meterRegistry);
+        this.revalidations = Counter.builder("customer.cache.invalidation.revalidations")
+                .description("Cache re-checks against the database on first hearing from a peer that had sent batches")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        publisher = Thread.ofPlatform().daemon().name("customer-cache-invalidation").start(this::publishLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (publisher != null) {
+            publisher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        publishPending();
+        senders.close();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (!queue.offer(new Key(event.customer().id(), event.customer().email()))) {
+            overflowed.set(true);
+        }
+    }
+
+    /**
+     * Apply a batch from a peer: evict its keys, or flush everything when
+     * the peer asked for it or a batch from that peer went missing.
+     */
+    public void receive(CacheInvalidationBatch batch) {
+        if (origin.equals(batch.origin())) {
+            return;
+        }
+        received.increment();
+
+        long now = System.nanoTime();
+        AtomicBoolean gap = new AtomicBoolean();
+        AtomicBoolean firstContact = new AtomicBoolean();
+        origins.compute(batch.origin(), (key, state) -> {
+            firstContact.set(state == null);
+            long last = state == null ? 0 : state.sequence();
+            // A heartbeat repeats the last number sent, a batch carries the next one;
+            // without history, anything past the first batch may follow one we never got
+            long expected = isHeartbeat(batch) ? last : last + 1;
+            if (batch.sequence() > expected) {
+                gap.set(true);
+            }
+            return new OriginState(Math.max(last, batch.sequence()), now);
+        });
+
+        if (batch.flushAll()) {
+            requestedFlushes.increment();
+            cache.evictAll();
+            eventPublisher.publishEvent(new PeerCustomersChangedEvent(null));
+        } else if (gap.get() && firstContact.get()) {
+            revalidations.increment();
+            int dropped = cache.revalidate();
+            logger.info("First message from {} at {}; dropped {} customer cache entries changed meanwhile",
+                    batch.origin(), batch.sequence(), dropped);
+            eventPublisher.publishEvent(new PeerCustomersChangedEvent(null));
+        } else if (gap.get()) {
+            logger.info("Missed cache invalidations from {} (now at {}), flushing customer caches",
+                    batch.origin(), batch.sequence());
+            gapFlushes.increment();
+            cache.evictAll();
+            eventPublisher.publishEvent(new PeerCustomersChangedEvent(null));
+        } else if (!isHeartbeat(batch)) {
+            for (int i = 0; i < batch.ids().size(); i++) {
+                cache.invalidate(batch.ids().get(i), batch.emails().get(i));
+            }
+            eventPublisher.publishEvent(new PeerCustomersChangedEvent(batch.emails()));
+        }
+    }
+
+    private static boolean isHeartbeat(CacheInvalidationBatch batch) {
+        return !batch.flushAll() && batch.ids().isEmpty();
+    }
+
+    private void publishLoop() {
+        long lastPublished = System.nanoTime();
+        while (running) {
+            try {
+                Key first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null && !overflowed.get()
+                        && System.nanoTime() - lastPublished < heartbeatInterval.toNanos()) {
+                    continue;
+                }
+                if (first != null) {
+                    // Let the rest of a burst arrive so it travels in one message
+                    Thread.sleep(batchWindow);
+                }
+                publish(first);
+                lastPublished = System.nanoTime();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Cache invalidation broadcast failed", e);
+            }
+        }
+    }
+
+    /**
+     * Send whatever is queued now, or a heartbeat when nothing is
+     */
+    void publishPending() {
+        publish(null);
+    }
+
+    private void publish(Key first) {
+        List<Key> keys = new ArrayList<>(maxBatchSize);
+        if (first != null) {
+            keys.add(first);
+        }
+        do {
+            queue.drainTo(keys, maxBatchSize - keys.size());
+            boolean flushAll = overflowed.getAndSet(false);
+            CacheInvalidationBatch batch = keys.isEmpty() && !flushAll
+                    ? new CacheInvalidationBatch(origin, sequence.get(), false, List.of(), List.of())
+                    : new CacheInvalidationBatch(origin, sequence.incrementAndGet(), flushAll,
+                            keys.stream().map(Key::id).toList(), keys.stream().map(Key::email).toList());
+            sendToPeers(batch);
+            keys.clear();
+        } while (!queue.isEmpty());
+        origins.values().removeIf(state -> System.nanoTime() - state.lastSeenNanos() > ORIGIN_EXPIRY_NANOS);
+    }
+
+    /**
+     * Send to all peers at once and wait for every send, so batches reach
+     * each peer in sequence order.
+     */
+    private void sendToPeers(CacheInvalidationBatch batch) {
+        String self = selfInstanceId.get();
+        List<Future<?>> sends = new ArrayList<>();
+        for (ServiceInstance peer : discoveryClient.getInstances(serviceId)) {
+            if (!Objects.equals(peer.getInstanceId(), self)) {
+                sends.add(senders.submit(() -> send(peer, batch)));
+            }
+        }
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (ExecutionException e) {
+                logger.error("Cache invalidation send failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(ServiceInstance peer, CacheInvalidationBatch batch) {
+        try {
+            transport.send(peer, batch);
+            sent.increment();
+        } catch (RuntimeException e) {
+            sendFailures.increment();
+            logger.warn("Could not send cache invalidation {} to {}: {}",
+                    batch.sequence(), peer.getInstanceId(), e.getMessage());
+        }
+    }
+
+    private record Key(long id, String email) {}
+
+    private record OriginState(long sequence, long lastSeenNanos) {}
+}
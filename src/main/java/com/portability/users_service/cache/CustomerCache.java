@@ -0,0 +1,233 @@
+package com.portability.users_service.cache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.CustomerVersion;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of {@link CustomerResponse} keyed by id and email. The
+ * two views are kept consistent on writes through {@link #put(CustomerResponse)}.
+ * Phone lookups resolve to an id through {@code PhoneIndex} and then use the id view.
+ */
+@Component
+public class CustomerCache {
+
+    public static final String BY_ID = "customersById";
+    public static final String BY_EMAIL = "customersByEmail";
+
+    private final CustomerRepo repo;
+    private final int chunkSize;
+    private final LoadingCache<Long, CustomerResponse> byId;
+    private final LoadingCache<String, CustomerResponse> byEmail;
+
+    public CustomerCache(CustomerRepo repo, CustomerCacheProperties properties,
+            CaffeineCacheManager cacheManager, MeterRegistry meterRegistry,
+            @Value("${customer.batch.chunk-size:500}") int chunkSize) {
+        this.repo = repo;
+        this.chunkSize = chunkSize;
+        this.byId = build(properties.spec(BY_ID), loader(chunkSize,
+                repo::findResponseById,
+                repo::findResponsesByIdIn,
+                CustomerResponse::id));
+        this.byEmail = build(properties.spec(BY_EMAIL), loader(chunkSize,
+                repo::findResponseByEmail,
+                repo::findResponsesByEmailIn,
+                CustomerResponse::email));
+
+        register(cacheManager, meterRegistry, BY_ID, byId);
+        register(cacheManager, meterRegistry, BY_EMAIL, byEmail);
+    }
+
+    public CustomerResponse getById(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public CustomerResponse getByEmail(String email) {
+        return email == null ? null : byEmail.get(email);
+    }
+
+    /**
+     * Cached or loaded customers for the given ids; ids with no customer are
+     * absent from the result. Misses are loaded with one IN query per chunk.
+     */
+    public Map<Long, CustomerResponse> getAllById(Collection<Long> ids) {
+        return byId.getAll(ids);
+    }
+
+    public Map<String, CustomerResponse> getAllByEmail(Collection<String> emails) {
+        return byEmail.getAll(emails);
+    }
+
+    /**
+     * Store a freshly written customer under both keys, dropping the email
+     * entry of the previous version if it changed.
+     */
+    public void put(CustomerResponse customer) {
+        evictStaleEmail(byId.getIfPresent(customer.id()), customer);
+        byId.put(customer.id(), customer);
+        byEmail.put(customer.email(), customer);
+    }
+
+    public void evict(CustomerResponse customer) {
+        invalidate(customer.id(), customer.email());
+    }
+
+    /**
+     * Drop a customer changed elsewhere, under its id, the given email and
+     * the email of the cached version if that differs.
+     */
+    public void invalidate(long id, String email) {
+        evictStaleEmail(byId.getIfPresent(id), null);
+        byId.invalidate(id);
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    /**
+     * Up to {@code limit} cached customers of the id view, the ones the
+     * eviction policy would keep longest first
+     */
+    public Map<Long, CustomerResponse> hottestById(int limit) {
+        return byId.policy().eviction().map(eviction -> eviction.hottest(limit)).orElse(Map.of());
+    }
+
+    public Map<String, CustomerResponse> hottestByEmail(int limit) {
+        return byEmail.policy().eviction().map(eviction -> eviction.hottest(limit)).orElse(Map.of());
+    }
+
+    /**
+     * Seed the id and email views without replacing entries already present
+     */
+    public void warm(Collection<CustomerResponse> byIdEntries, Collection<CustomerResponse> byEmailEntries) {
+        byIdEntries.forEach(customer -> byId.asMap().putIfAbsent(customer.id(), customer));
+        byEmailEntries.forEach(customer -> byEmail.asMap().putIfAbsent(customer.email(), customer));
+    }
+
+    /**
+     * Drop every cached customer whose {@code updatedAt} no longer matches
+     * the database, or that no longer exists, reading only {@code (id,
+     * updated_at)} in chunks; returns how many were dropped. Cheaper than
+     * {@link #evictAll()} when most entries are still current.
+     */
+    public int revalidate() {
+        Map<Long, CustomerResponse> cached = new HashMap<>(byId.asMap());
+        byEmail.asMap().values().forEach(customer -> cached.putIfAbsent(customer.id(), customer));
+        List<CustomerResponse> entries = new ArrayList<>(cached.values());
+
+        int dropped = 0;
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<CustomerResponse> chunk = entries.subList(from, Math.min(from + chunkSize, entries.size()));
+            Map<Long, LocalDateTime> versions = new HashMap<>(chunk.size());
+            for (CustomerVersion version : repo.findVersionsByIdIn(chunk.stream().map(CustomerResponse::id).toList())) {
+                versions.put(version.id(), version.updatedAt());
+            }
+            for (CustomerResponse customer : chunk) {
+                if (!versions.containsKey(customer.id())
+                        || !Objects.equals(versions.get(customer.id()), customer.updatedAt())) {
+                    invalidate(customer.id(), customer.email());
+                    dropped++;
+                }
+            }
+        }
+        return dropped;
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    private void evictStaleEmail(CustomerResponse previous, CustomerResponse current) {
+        if (previous != null && (current == null || !previous.email().equals(current.email()))) {
+            byEmail.invalidate(previous.email());
+        }
+    }
+
+    /**
+     * Loader that answers single misses with {@code single} and bulk misses
+     * with {@code bulk}, split into chunks of at most {@code chunkSize} keys.
+     */
+    private static <K> CacheLoader<K, CustomerResponse> loader(int chunkSize,
+            Function<K, CustomerResponse> single,
+            Function<List<K>, List<CustomerResponse>> bulk,
+            Function<CustomerResponse, K> keyOf) {
+        return new CacheLoader<>() {
+
+            @Override
+            public CustomerResponse load(K key) {
+                return single.apply(key);
+            }
+
+            @Override
+            public Map<K, CustomerResponse> loadAll(Set<? extends K> keys) {
+                List<K> pending = new ArrayList<>(keys);
+                Map<K, CustomerResponse> loaded = new HashMap<>(pending.size());
+                for (int from = 0; from < pending.size(); from += chunkSize) {
+                    List<K> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+                    for (CustomerResponse customer : bulk.apply(chunk)) {
+                        loaded.putIfAbsent(keyOf.apply(customer), customer);
+                    }
+                }
+                return loaded;
+            }
+        };
+    }
+
+    private static <K> LoadingCache<K, CustomerResponse> build(
+            CustomerCacheProperties.Spec spec, CacheLoader<K, CustomerResponse> loader) {
+        return Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight().toBytes())
+                .weigher((K key, CustomerResponse value) -> weigh(value))
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .refreshAfterWrite(spec.getRefreshAfterWrite())
+                .recordStats()
+                .build(loader);
+    }
+
+    /**
+     * Rough retained size of an entry in bytes: record and node overhead plus
+     * two bytes per character for each string field.
+     */
+    static int weigh(CustomerResponse customer) {
+        return 96
+                + (customer.updatedAt() == null ? 0 : 48)
+                + 2 * length(customer.firstName())
+                + 2 * length(customer.lastName())
+                + 2 * length(customer.email())
+                + 2 * length(customer.phoneNumber());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    @SuppressWarnings("unchecked")
+    static void register(CaffeineCacheManager cacheManager, MeterRegistry meterRegistry,
+            String name, Cache<?, ?> cache) {
+        cacheManager.registerCustomCache(name, (Cache<Object, Object>) cache);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+}
@@ -0,0 +1,306 @@
+package com.portability.users_service.cache;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.CustomerVersion;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Saves the hottest {@link CustomerCache} entries to a local file every
+ * {@code interval} and on shutdown, and loads them back on startup so a
+ * restarted instance doesn't send its whole working set to the database at
+ * once.
+ *
+ * <p>Loading happens while the context is created, before the web server
+ * opens its port or the instance registers with Eureka. Only entries whose
+ * {@code updatedAt} still matches the database are used; the check reads
+ * {@code (id, updated_at)} pairs in chunks instead of whole rows. A missing,
+ * torn or older than {@code max-age} file is ignored and the caches start
+ * cold as before.
+ *
+ * <p>The file is written through a memory mapping into a temporary file that
+ * replaces the previous snapshot atomically:
+ * <pre>
+ * header: magic (int), written at epoch millis (long), entries (int), CRC32C of the body (int)
+ * entry:  views (byte: 1 = by id, 2 = by email), id (long),
+ *         updatedAt epoch second (long) and nano (int),
+ *         firstName, lastName, email, phoneNumber (UTF-8, short length prefix, -1 for null)
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.cache-snapshot", name = "enabled", havingValue = "true")
+public class CustomerCacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCacheSnapshot.class);
+
+    private static final int MAGIC = 0x43534E31;
+    private static final int HEADER_BYTES = 20;
+    private static final byte BY_ID = 1;
+    private static final byte BY_EMAIL = 2;
+
+    private final CustomerCache cache;
+    private final CustomerRepo repo;
+    private final Path path;
+    private final int maxEntries;
+    private final Duration maxAge;
+    private final int chunkSize;
+
+    private final Counter restored;
+    private final Counter stale;
+
+    public CustomerCacheSnapshot(CustomerCache cache, CustomerRepo repo, MeterRegistry meterRegistry,
+            @Value("${customer.cache-snapshot.path:cache-snapshot/customers.bin}") String path,
+            @Value("${customer.cache-snapshot.max-entries:50000}") int maxEntries,
+            @Value("${customer.cache-snapshot.max-age:1h}") Duration maxAge,
+            @Value("${customer.batch.chunk-size:500}") int chunkSize) {
+        this.cache = cache;
+        this.repo = repo;
+        this.path = Path.of(path);
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+
+        this.restored = Counter.builder("customer.cache.snapshot.entries").tag("outcome", "restored")
+                .description("Snapshot entries loaded into the customer caches at startup")
+                .register(meterRegistry);
+        this.stale = Counter.builder("customer.cache.snapshot.entries").tag("outcome", "stale")
+                .description("Snapshot entries dropped at startup because the customer changed or was deleted")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Snapshot snapshot = read(path);
+            if (snapshot == null) {
+                logger.warn("Ignoring unreadable customer cache snapshot {}", path);
+                return;
+            }
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - snapshot.writtenAtMillis());
+            if (age.compareTo(maxAge) > 0) {
+                logger.info("Ignoring customer cache snapshot written {} ago", age);
+                return;
+            }
+
+            List<Entry> current = current(snapshot.entries());
+            cache.warm(
+                    current.stream().filter(Entry::byId).map(Entry::customer).toList(),
+                    current.stream().filter(Entry::byEmail).map(Entry::customer).toList());
+            restored.increment(current.size());
+            stale.increment(snapshot.entries().size() - current.size());
+            logger.info("Customer caches warmed from snapshot: {} of {} entries current, {} ms",
+                    current.size(), snapshot.entries().size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Customer cache snapshot restore failed; starting with cold caches", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.cache-snapshot.interval:1m}",
+            initialDelayString = "${customer.cache-snapshot.interval:1m}")
+    public synchronized void save() {
+        List<Entry> entries = hottest();
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long bytes = write(path, entries, System.currentTimeMillis());
+            logger.debug("Customer cache snapshot written: {} entries, {} KB in {} ms",
+                    entries.size(), bytes / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write customer cache snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        save();
+    }
+
+    /**
+     * The hottest entries of both views, one per customer, flagged with the
+     * views it was found in
+     */
+    private List<Entry> hottest() {
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        cache.hottestById(maxEntries).values().forEach(customer ->
+                entries.put(customer.id(), new Entry(customer, true, false)));
+        for (CustomerResponse customer : cache.hottestByEmail(maxEntries).values()) {
+            entries.merge(customer.id(), new Entry(customer, false, true),
+                    (byId, byEmail) -> new Entry(byId.customer(), true, true));
+        }
+        return entries.values().stream()
+                .filter(entry -> entry.customer().updatedAt() != null)
+                .limit(maxEntries)
+                .toList();
+    }
+
+    /**
+     * Entries whose customer still exists with the same {@code updatedAt}
+     */
+    private List<Entry> current(List<Entry> entries) {
+        List<Entry> current = new ArrayList<>(entries.size());
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<Entry> chunk = entries.subList(from, Math.min(from + chunkSize, entries.size()));
+            Map<Long, LocalDateTime> versions = new HashMap<>(chunk.size());
+            for (CustomerVersion version : repo.findVersionsByIdIn(
+                    chunk.stream().map(entry -> entry.customer().id()).toList())) {
+                versions.put(version.id(), version.updatedAt());
+            }
+            for (Entry entry : chunk) {
+                if (Objects.equals(versions.get(entry.customer().id()), entry.customer().updatedAt())) {
+                    current.add(entry);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Write the entries to {@code target}, replacing it atomically; returns the file size
+     */
+    static long write(Path target, List<Entry> entries, long writtenAtMillis) throws IOException {
+        List<byte[][]> strings = new ArrayList<>(entries.size());
+        long size = HEADER_BYTES;
+        for (Entry entry : entries) {
+            CustomerResponse customer = entry.customer();
+            byte[][] fields = {
+                utf8(customer.firstName()), utf8(customer.lastName()),
+                utf8(customer.email()), utf8(customer.phoneNumber())
+            };
+            strings.add(fields);
+            size += 1 + 8 + 8 + 4;
+            for (byte[] field : fields) {
+                size += 2 + (field == null ? 0 : field.length);
+            }
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.position(HEADER_BYTES);
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                CustomerResponse customer = entry.customer();
+                LocalDateTime updatedAt = customer.updatedAt();
+                buffer.put((byte) ((entry.byId() ? BY_ID : 0) | (entry.byEmail() ? BY_EMAIL : 0)));
+                buffer.putLong(customer.id());
+                buffer.putLong(updatedAt.toEpochSecond(ZoneOffset.UTC));
+                buffer.putInt(updatedAt.getNano());
+                for (byte[] field : strings.get(i)) {
+                    putString(buffer, field);
+                }
+            }
+            buffer.putInt(0, MAGIC)
+                    .putLong(4, writtenAtMillis)
+                    .putInt(12, entries.size())
+                    .putInt(16, checksum(buffer, size));
+            buffer.force();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * The snapshot in {@code source}, or null when it isn't a complete snapshot
+     */
+    static Snapshot read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(16) != checksum(buffer, size)) {
+                return null;
+            }
+            int count = buffer.getInt(12);
+            List<Entry> entries = new ArrayList<>(count);
+            buffer.position(HEADER_BYTES);
+            for (int i = 0; i < count; i++) {
+                byte views = buffer.get();
+                long id = buffer.getLong();
+                LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                CustomerResponse customer = new CustomerResponse(id, getString(buffer), getString(buffer),
+                        getString(buffer), getString(buffer), updatedAt);
+                entries.add(new Entry(customer, (views & BY_ID) != 0, (views & BY_EMAIL) != 0));
+            }
+            return new Snapshot(buffer.getLong(4), entries);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, long size) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_BYTES, (int) size - HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    record Entry(CustomerResponse customer, boolean byId, boolean byEmail) {}
+
+    record Snapshot(long writtenAtMillis, List<Entry> entries) {}
+}
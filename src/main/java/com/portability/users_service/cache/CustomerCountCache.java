@@ -0,0 +1,42 @@
+package com.portability.users_service.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portability.users_service.config.CustomerCacheProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache of filtered customer counts, used for estimated totals
+ */
+@Component
+public class CustomerCountCache {
+
+    public static final String NAME = "customerCounts";
+
+    /** Approximate heap bytes per entry: key record, four short strings and the node */
+    private static final int ENTRY_WEIGHT = 256;
+
+    private final Cache<CustomerFilterKey, Long> counts;
+
+    public CustomerCountCache(CustomerCacheProperties properties,
+            CaffeineCacheManager cacheManager, MeterRegistry meterRegistry) {
+        CustomerCacheProperties.Spec spec = properties.spec(NAME);
+        this.counts = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight().toBytes())
+                .weigher((CustomerFilterKey key, Long value) -> ENTRY_WEIGHT)
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CustomerCache.register(cacheManager, meterRegistry, NAME, counts);
+    }
+
+    public long get(CustomerFilterKey key, Supplier<Long> counter) {
+        return counts.get(key, k -> counter.get());
+    }
+}
@@ -0,0 +1,32 @@
+package com.portability.users_service.cache;
+
+import java.util.Locale;
+
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.enm.MatchMode;
+
+/**
+ * Normalized form of a {@link CustomerFilterRequest} for use as a cache key.
+ * Filtering is case-insensitive, so trimmed lowercase values match the same rows.
+ */
+public record CustomerFilterKey(String search, String firstName, String lastName, String email, MatchMode match) {
+
+    public static CustomerFilterKey of(CustomerFilterRequest filter) {
+        if (filter == null) {
+            return new CustomerFilterKey(null, null, null, null, MatchMode.CONTAINS);
+        }
+        return new CustomerFilterKey(
+                normalize(filter.getSearch()),
+                normalize(filter.getFirstName()),
+                normalize(filter.getLastName()),
+                normalize(filter.getEmail()),
+                filter.getMatch() == null ? MatchMode.CONTAINS : filter.getMatch());
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
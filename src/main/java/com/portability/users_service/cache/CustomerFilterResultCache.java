@@ -0,0 +1,128 @@
+package com.portability.users_service.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.config.ReplicaStickiness;
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache of filter pages keyed by the normalized filter, page
+ * request and count strategy. Concurrent requests for a page that isn't
+ * cached share one query: the first caller runs it on its own thread (with
+ * its own transaction and replica routing) and the others wait for its
+ * result without holding a connection.
+ *
+ * <p>Pages are also keyed by whether the caller reads from the primary:
+ * a client that just wrote is pinned there by {@link ReplicaStickiness} and
+ * never shares a page with a query that ran on a lagging replica.
+ *
+ * <p>Any customer write on this instance drops every cached page, since it
+ * may change the rows or count of any filter; queries already running still
+ * answer the callers that joined them but are never joined afterwards.
+ * Writes on other instances show up within {@code expire-after-write}.
+ */
+@Component
+public class CustomerFilterResultCache {
+
+    public static final String NAME = "customerFilterResults";
+
+    /** Approximate heap bytes per entry (key, page wrapper, node) and per customer in the page */
+    private static final int ENTRY_WEIGHT = 512;
+    private static final int CUSTOMER_WEIGHT = 320;
+
+    private final AsyncCache<Key, PagedResponse<CustomerResponse>> results;
+    // Part of the key, so a request after a write never joins a query that started before it
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter collapsed;
+    private final ReplicaStickiness replicaStickiness;
+
+    @Autowired
+    public CustomerFilterResultCache(CustomerCacheProperties properties, CaffeineCacheManager cacheManager,
+            MeterRegistry meterRegistry, ObjectProvider<ReplicaStickiness> replicaStickiness) {
+        this(properties, cacheManager, meterRegistry, replicaStickiness.getIfAvailable());
+    }
+
+    CustomerFilterResultCache(CustomerCacheProperties properties, CaffeineCacheManager cacheManager,
+            MeterRegistry meterRegistry, ReplicaStickiness replicaStickiness) {
+        this.replicaStickiness = replicaStickiness;
+        CustomerCacheProperties.Spec spec = properties.spec(NAME);
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight().toBytes())
+                .weigher((Key key, PagedResponse<CustomerResponse> page) ->
+                        ENTRY_WEIGHT + page.getContent().size() * CUSTOMER_WEIGHT)
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+        CustomerCache.register(cacheManager, meterRegistry, NAME, results.synchronous());
+        this.collapsed = Counter.builder("customer.filter.queries.collapsed")
+                .description("Filter requests that waited for an identical query already running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached page, the result of an identical query already running, or
+     * the result of running {@code query} on this thread
+     */
+    public PagedResponse<CustomerResponse> get(CustomerFilterRequest filter, Pageable pageable,
+            CountStrategy countStrategy, Supplier<PagedResponse<CustomerResponse>> query) {
+        boolean primary = replicaStickiness != null && replicaStickiness.isSticky();
+        Key key = new Key(generation.get(), primary, CustomerFilterKey.of(filter), pageable, countStrategy);
+        CompletableFuture<PagedResponse<CustomerResponse>> flight = new CompletableFuture<>();
+        // Installing the future is cheap; the query itself runs outside the cache's lock
+        CompletableFuture<PagedResponse<CustomerResponse>> running = results.get(key, (k, executor) -> flight);
+
+        if (running == flight) {
+            try {
+                PagedResponse<CustomerResponse> page = query.get();
+                flight.complete(page);
+                return page;
+            } catch (RuntimeException | Error e) {
+                // Failed futures are dropped from the cache, so the next caller queries again
+                flight.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (!running.isDone()) {
+            collapsed.increment();
+        }
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        results.synchronous().invalidateAll();
+    }
+
+    private record Key(long generation, boolean primary, CustomerFilterKey filter, Pageable pageable,
+            CountStrategy countStrategy) {}
+}
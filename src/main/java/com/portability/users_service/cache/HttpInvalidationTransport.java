@@ -0,0 +1,57 @@
+package com.portability.users_service.cache;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import com.portability.users_service.model.dto.CacheInvalidationBatch;
+
+/**
+ * Posts invalidation batches to {@value #PATH} on the peer, with short
+ * timeouts so a dead peer cannot hold up the others. Every request carries
+ * {@code customer.cache-invalidation.secret} in {@value #SECRET_HEADER};
+ * peers refuse batches without it, so enabling invalidation without one
+ * stops the service from starting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.cache-invalidation", name = "enabled", havingValue = "true")
+public class HttpInvalidationTransport implements InvalidationTransport {
+
+    public static final String PATH = "/api/internal/cache/invalidations";
+    public static final String SECRET_HEADER = "X-Cache-Invalidation-Secret";
+
+    private final RestClient restClient;
+    private final String secret;
+
+    public HttpInvalidationTransport(@Value("${customer.cache-invalidation.send-timeout:1s}") Duration timeout,
+            @Value("${customer.cache-invalidation.secret:}") String secret) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalStateException(
+                    "customer.cache-invalidation.secret (CACHE_INVALIDATION_SECRET) must be set while cache invalidation is enabled");
+        }
+        this.secret = secret;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public void send(ServiceInstance peer, CacheInvalidationBatch batch) {
+        restClient.post()
+                .uri(peer.getUri().resolve(PATH))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(SECRET_HEADER, secret)
+                .body(batch)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
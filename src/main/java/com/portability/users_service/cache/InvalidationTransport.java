@@ -0,0 +1,15 @@
+package com.portability.users_service.cache;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import com.portability.users_service.model.dto.CacheInvalidationBatch;
+
+/**
+ * Delivers a batch of cache invalidations to one peer. Failures are thrown
+ * and not retried: the peer notices the missing sequence number on the next
+ * batch or heartbeat and flushes its caches.
+ */
+public interface InvalidationTransport {
+
+    void send(ServiceInstance peer, CacheInvalidationBatch batch);
+}
@@ -1,13 +1,18 @@
 package com.portability.users_service.config;
 
+import java.time.Duration;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
-import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 
@@ -15,6 +20,9 @@ import jakarta.annotation.PostConstruct;
 
 @Configuration
 @EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties({ CustomerCacheProperties.class, PortabilityDispatchProperties.class,
+        LoadSheddingProperties.class })
 public class AppConfig {
 
     @PostConstruct
@@ -23,7 +31,7 @@ public class AppConfig {
     }
 
     @Bean
-    public CacheManager cacheManager() {
+    public CaffeineCacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(35, TimeUnit.SECONDS)
@@ -31,4 +39,16 @@ public class AppConfig {
         return cacheManager;
     }
 
+    /**
+     * Template for customer writes. Its timeout bounds how long a write can
+     * stay uncommitted after stamping {@code updatedAt}, which the change feed
+     * relies on (see {@code customer.change-feed.settle-lag}).
+     */
+    @Bean
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager,
+            @Value("${customer.change-feed.write-timeout:2s}") Duration writeTimeout) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setTimeout((int) Math.max(1, writeTimeout.toSeconds()));
+        return template;
+    }
 }
@@ -0,0 +1,34 @@
+package com.portability.users_service.config;
+
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+
+import feign.RequestInterceptor;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Feign client configuration for calls to services that answer CBOR, such
+ * as this one: {@code @FeignClient(name = "users-service", configuration =
+ * CborFeignConfiguration.class)}. Responses are requested as CBOR with JSON
+ * as fallback and decoded with Boot's CBOR mapper; request bodies stay JSON.
+ * Not a {@code @Configuration}, so it only applies to clients that name it.
+ */
+public class CborFeignConfiguration {
+
+    static final String ACCEPT = MediaType.APPLICATION_CBOR_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.5";
+
+    @Bean
+    public RequestInterceptor cborAcceptInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT, ACCEPT);
+    }
+
+    @Bean
+    public HttpMessageConverterCustomizer cborMessageConverterCustomizer(CBORMapper cborMapper) {
+        return converters -> converters.replaceAll(converter -> converter instanceof JacksonCborHttpMessageConverter
+                ? new JacksonCborHttpMessageConverter(cborMapper)
+                : converter);
+    }
+}
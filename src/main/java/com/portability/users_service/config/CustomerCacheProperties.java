@@ -0,0 +1,46 @@
+package com.portability.users_service.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "customer.cache")
+public class CustomerCacheProperties {
+
+    /**
+     * Settings used by any cache without its own entry in {@link #specs}
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * Per-cache settings keyed by cache name
+     */
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec spec(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Approximate heap budget for the cache; entries are weighed by their size
+         */
+        private DataSize maximumWeight = DataSize.ofMegabytes(8);
+
+        private Duration expireAfterWrite = Duration.ofSeconds(35);
+
+        /**
+         * Entries read after this age are reloaded in the background while the
+         * old value keeps being served. Must be shorter than expireAfterWrite.
+         */
+        private Duration refreshAfterWrite = Duration.ofSeconds(25);
+    }
+}
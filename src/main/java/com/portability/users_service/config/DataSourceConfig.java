@@ -0,0 +1,60 @@
+package com.portability.users_service.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounds how many request threads compete for JDBC connections at once. Meant
+ * for {@code spring.threads.virtual.enabled=true}, where request concurrency
+ * is no longer capped by the Tomcat worker pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.datasource.concurrency-limit", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * Wrap the Hikari pool so callers queue on a fair semaphore with one
+     * permit per pooled connection; waiting gives up after the pool's own
+     * connection timeout.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(hikari,
+                        hikari.getMaximumPoolSize(), Duration.ofMillis(hikari.getConnectionTimeout()));
+                meterRegistry.ifAvailable(registry -> registerGauges(registry,
+                        hikari.getPoolName() == null ? beanName : hikari.getPoolName(), limited));
+                return limited;
+            }
+        };
+    }
+
+    private static void registerGauges(MeterRegistry meterRegistry, String pool,
+            ConcurrencyLimitedDataSource dataSource) {
+        Gauge.builder("customer.db.permits.available", dataSource, ConcurrencyLimitedDataSource::getAvailablePermits)
+                .description("Database permits free out of the pool size")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("customer.db.permits.waiting", dataSource, ConcurrencyLimitedDataSource::getQueueLength)
+                .description("Threads queued for a database permit")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+}
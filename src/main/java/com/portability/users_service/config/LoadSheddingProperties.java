@@ -0,0 +1,48 @@
+package com.portability.users_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "customer.load-shedding")
+public class LoadSheddingProperties {
+
+    /**
+     * Concurrent customer requests allowed before any latency has been measured
+     */
+    private int initialLimit = 50;
+
+    private int minLimit = 5;
+
+    private int maxLimit = 500;
+
+    /**
+     * A request slower than this multiple of the usual latency of its kind
+     * counts as congestion
+     */
+    private double latencyTolerance = 2.0;
+
+    /**
+     * Factor applied to the limit on congestion or a server error, at most
+     * once per round trip
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Share of the limit that filter queries may occupy
+     */
+    private double scanShare = 0.75;
+
+    /**
+     * Share of the limit that imports, exports and streams may occupy
+     */
+    private double bulkShare = 0.5;
+
+    /**
+     * Retry-After sent with the 503 for shed requests
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
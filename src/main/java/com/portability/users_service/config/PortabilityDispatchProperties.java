@@ -0,0 +1,53 @@
+package com.portability.users_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "customer.portability.dispatch")
+public class PortabilityDispatchProperties {
+
+    /**
+     * Requests waiting to be sent; submissions beyond this get 429
+     */
+    private int queueCapacity = 10_000;
+
+    private int batchSize = 100;
+
+    /**
+     * How long a sender waits for a batch to fill before sending what it has
+     */
+    private Duration maxWait = Duration.ofMillis(50);
+
+    /**
+     * Batches in flight to the downstream service at once
+     */
+    private int concurrency = 4;
+
+    /**
+     * Tries per batch, including the first
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Backoff before the first retry, doubled on each attempt up to
+     * maxBackoff, with full jitter. A downstream Retry-After takes precedence.
+     */
+    private Duration initialBackoff = Duration.ofMillis(200);
+
+    private Duration maxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * How long shutdown keeps sending what is already queued; whatever is
+     * left after that is dropped and counted as failed
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Retry-After sent to callers turned away because the queue is full
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,65 @@
+package com.portability.users_service.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Picks the replica pool for read-only transactions that opted in through
+ * {@link #readFromReplica(ReplicaWork)} (or {@link ReplicaRead}), unless the
+ * calling client wrote recently; everything else goes to the primary. Must
+ * sit behind a {@code LazyConnectionDataSourceProxy} so the connection is
+ * fetched after the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> REPLICA_ELIGIBLE = new ThreadLocal<>();
+
+    private final ReplicaStickiness stickiness;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaStickiness stickiness) {
+        this.stickiness = stickiness;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run work whose read-only transactions may be served by the replica,
+     * i.e. that tolerates replication lag
+     */
+    public static <T, E extends Throwable> T readFromReplica(ReplicaWork<T, E> work) throws E {
+        Boolean outer = REPLICA_ELIGIBLE.get();
+        REPLICA_ELIGIBLE.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            if (outer == null) {
+                REPLICA_ELIGIBLE.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickiness.recordWrite();
+            }
+            return Route.PRIMARY;
+        }
+        return REPLICA_ELIGIBLE.get() != null && !stickiness.isSticky() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @FunctionalInterface
+    public interface ReplicaWork<T, E extends Throwable> {
+        T run() throws E;
+    }
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+}
@@ -0,0 +1,83 @@
+package com.portability.users_service.config;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary and replica Hikari pools, each sized on its own
+ * ({@code spring.datasource.hikari.*} and
+ * {@code customer.datasource.replica.hikari.*}), behind a
+ * {@link ReadWriteRoutingDataSource} that the rest of the application
+ * (JPA, Flyway, JDBC) sees as its only data source.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("customer.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${customer.datasource.replica.url}") String url,
+            @Value("${customer.datasource.replica.username}") String username,
+            @Value("${customer.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaStickiness replicaStickiness(
+            @Value("${customer.datasource.replica.sticky-window:5s}") Duration window,
+            @Value("${customer.datasource.replica.max-sticky-clients:100000}") long maximumClients) {
+        return new ReplicaStickiness(window, maximumClients);
+    }
+
+    @Bean
+    public ReplicaStickinessFilter replicaStickinessFilter() {
+        return new ReplicaStickinessFilter();
+    }
+
+    /**
+     * The lazy proxy answers auto-commit and isolation itself, so no pool is
+     * touched until a statement runs and the route is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, ReplicaStickiness stickiness) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, stickiness));
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
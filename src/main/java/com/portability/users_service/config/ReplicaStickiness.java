@@ -0,0 +1,48 @@
+package com.portability.users_service.config;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Read-your-writes for replica routing: a client that wrote within the
+ * window reads from the primary. Clients are identified per request by
+ * {@link ReplicaStickinessFilter}; the window is tracked per instance.
+ */
+public class ReplicaStickiness {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaStickiness(Duration window, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    /**
+     * Pin the current client to the primary for the stickiness window
+     */
+    public void recordWrite() {
+        String client = CLIENT.get();
+        if (client != null) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky() {
+        String client = CLIENT.get();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+
+    static void bind(String client) {
+        CLIENT.set(client);
+    }
+
+    static void clear() {
+        CLIENT.remove();
+    }
+}
@@ -0,0 +1,31 @@
+package com.portability.users_service.config;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Identifies the client of each request for {@link ReplicaStickiness}: the
+ * {@value #CLIENT_ID_HEADER} header when sent, the remote address otherwise.
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        ReplicaStickiness.bind(clientId == null || clientId.isBlank() ? request.getRemoteAddr() : clientId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaStickiness.clear();
+        }
+    }
+}
@@ -1,8 +1,28 @@
 package com.portability.users_service.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import tools.jackson.dataformat.cbor.CBORMapper;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private final CBORMapper cborMapper;
+
+    public WebConfig(CBORMapper cborMapper) {
+        this.cborMapper = cborMapper;
+    }
+
+    /**
+     * {@code Accept: application/cbor} gets the same responses in binary
+     * form, encoded with Boot's CBOR mapper; JSON stays first, so it remains
+     * the default for browsers and Swagger.
+     */
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper));
+    }
 }
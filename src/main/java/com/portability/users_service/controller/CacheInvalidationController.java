@@ -0,0 +1,56 @@
+package com.portability.users_service.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.portability.users_service.cache.CacheInvalidationBroadcaster;
+import com.portability.users_service.cache.HttpInvalidationTransport;
+import com.portability.users_service.model.dto.CacheInvalidationBatch;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.validation.Valid;
+
+/**
+ * Receives cache invalidations from other instances of this service; not
+ * part of the public API. Callers must present the shared
+ * {@code customer.cache-invalidation.secret}.
+ */
+@Hidden
+@RestController
+public class CacheInvalidationController {
+
+    @Autowired(required = false)
+    private CacheInvalidationBroadcaster broadcaster;
+
+    @Value("${customer.cache-invalidation.secret:}")
+    private String secret;
+
+    @PostMapping(HttpInvalidationTransport.PATH)
+    public ResponseEntity<Void> receiveInvalidations(
+            @RequestHeader(name = HttpInvalidationTransport.SECRET_HEADER, required = false) String presented,
+            @Valid @RequestBody CacheInvalidationBatch batch) {
+        if (broadcaster == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!authorized(presented)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        broadcaster.receive(batch);
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean authorized(String presented) {
+        return StringUtils.hasText(secret) && presented != null
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
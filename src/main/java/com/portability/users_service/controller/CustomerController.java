@@ -1,9 +1,12 @@
 package com.portability.users_service.controller;
 
+import java.io.IOException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,14 +14,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.portability.users_service.model.dto.BatchByEmailRequest;
+import com.portability.users_service.model.dto.BatchByIdRequest;
+import com.portability.users_service.model.dto.BatchByPhoneNumberRequest;
+import com.portability.users_service.model.dto.BatchLookupResponse;
 import com.portability.users_service.model.dto.ByEmailRequest;
 import com.portability.users_service.model.dto.ByPhoneNumberRequest;
 import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.dto.CustomerImportResult;
 import com.portability.users_service.model.dto.CustomerRequest;
 import com.portability.users_service.model.dto.CustomerResponse;
 import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+import com.portability.users_service.service.CustomerChangeFeedService;
+import com.portability.users_service.service.CustomerExportService;
+import com.portability.users_service.service.CustomerImportService;
 import com.portability.users_service.service.CustomerService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,14 +53,24 @@ public class CustomerController {
     @Autowired
     private CustomerService service;
 
+    @Autowired
+    private CustomerImportService importService;
+
+    @Autowired
+    private CustomerExportService exportService;
+
+    @Autowired
+    private CustomerChangeFeedService changeFeedService;
+
     @Operation(
             summary = "Filter customers",
-            description = "Retrieve a paginated list of customers using filters sent in the request body. Use this endpoint to filter by personal or sensitive information."
-    )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Customers retrieved successfully"
+            description = "Retrieve a paginated list of customers using filters sent in the request body. Use this endpoint to filter by personal or sensitive information. "
+                    + "Set keyset=true to page with cursors: each response carries nextCursor, which is passed back as cursor to get the next page."
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Customers retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort field or invalid cursor", content = @Content)
+    })
     @PostMapping("/customers/filter")
     public ResponseEntity<PagedResponse<CustomerResponse>> filterCustomers(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -58,26 +83,37 @@ public class CustomerController {
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "20")
             @RequestParam(required = false, defaultValue = "20") int size,
-            @Parameter(description = "Sort field", example = "id")
+            @Parameter(description = "Sort field: id, email or updatedAt (indexed fields only)", example = "id")
             @RequestParam(required = false, defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc")
-            @RequestParam(required = false, defaultValue = "asc") String sortDirection) {
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection,
+            @Parameter(description = "Use cursor (keyset) pagination instead of page numbers; implied when a cursor is sent", example = "false")
+            @RequestParam(required = false, defaultValue = "false") boolean keyset,
+            @Parameter(description = "Continuation token from the previous page's nextCursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "How totalElements is computed: EXACT, NONE (only reports whether a next page exists) or ESTIMATED", example = "EXACT")
+            @RequestParam(required = false, defaultValue = "EXACT") CountStrategy count) {
         Sort.Direction direction = sortDirection.equalsIgnoreCase("desc")
                 ? Sort.Direction.DESC
                 : Sort.Direction.ASC;
+        if (keyset || cursor != null) {
+            return ResponseEntity.ok(service.getCustomersByCursor(filter, sortBy, direction, size, cursor));
+        }
         Sort sort = Sort.by(direction, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        PagedResponse<CustomerResponse> customers = service.getCustomers(filter, pageable);
+        PagedResponse<CustomerResponse> customers = service.getCustomers(filter, pageable, count);
         return ResponseEntity.ok(customers);
     }
 
     @Operation(
             summary = "Get customer by ID",
-            description = "Retrieve a single customer by their unique identifier"
+            description = "Retrieve a single customer by their unique identifier. The response carries an ETag and "
+                    + "Last-Modified; send them back as If-None-Match / If-Modified-Since to get 304 when unchanged."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Customer found successfully",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Customer unchanged since the given ETag or date", content = @Content),
         @ApiResponse(responseCode = "404", description = "Customer not found", content = @Content)
     })
     @GetMapping("/customers/{id}")
@@ -119,10 +155,56 @@ public class CustomerController {
         return service.getCustomerByPhoneNumber(phoneNumberRequest.getPhoneNumber());
     }
 
+    @Operation(
+            summary = "Get customers by IDs",
+            description = "Retrieve up to customer.batch.max-keys customers by ID in one call. IDs without a customer are listed in missing."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup completed"),
+        @ApiResponse(responseCode = "400", description = "Empty or too many IDs", content = @Content)
+    })
+    @PostMapping("/customers/batch/by-id")
+    public ResponseEntity<BatchLookupResponse<Long>> getCustomersByIds(
+            @Valid
+            @RequestBody BatchByIdRequest request) {
+        return service.getCustomersByIds(request.getIds());
+    }
+
+    @Operation(
+            summary = "Get customers by emails",
+            description = "Retrieve up to customer.batch.max-keys customers by email in one call. Emails without a customer are listed in missing."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup completed"),
+        @ApiResponse(responseCode = "400", description = "Empty, invalid or too many emails", content = @Content)
+    })
+    @PostMapping("/customers/batch/by-email")
+    public ResponseEntity<BatchLookupResponse<String>> getCustomersByEmails(
+            @Valid
+            @RequestBody BatchByEmailRequest request) {
+        return service.getCustomersByEmails(request.getEmails());
+    }
+
+    @Operation(
+            summary = "Get customers by phone numbers",
+            description = "Retrieve up to customer.batch.max-keys customers by phone number in one call. Numbers without a customer are listed in missing."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup completed"),
+        @ApiResponse(responseCode = "400", description = "Empty or too many phone numbers", content = @Content)
+    })
+    @PostMapping("/customers/batch/by-phone")
+    public ResponseEntity<BatchLookupResponse<String>> getCustomersByPhoneNumbers(
+            @Valid
+            @RequestBody BatchByPhoneNumberRequest request) {
+        return service.getCustomersByPhoneNumbers(request.getPhoneNumbers());
+    }
+
     @Operation(summary = "Register new customer", description = "Registers a new customer in the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Customer registered successfully", content = @Content),
         @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Email already registered", content = @Content),
         @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @PostMapping("/customer/register")
@@ -131,4 +213,89 @@ public class CustomerController {
             @RequestBody CustomerRequest customerRequest) {
         return service.registerCustomer(customerRequest);
     }
+
+    @Operation(
+            summary = "Bulk import customers from CSV",
+            description = "Streams a CSV file with the columns firstName, lastName, email and optionally phoneNumber "
+                    + "and inserts valid rows in batches. Invalid or duplicate rows are reported without aborting the import."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerImportResult.class))),
+        @ApiResponse(responseCode = "400", description = "Missing required columns or malformed CSV", content = @Content)
+    })
+    @PostMapping(value = "/customers/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CustomerImportResult> importCustomers(
+            @Parameter(description = "CSV file with a header row")
+            @RequestPart("file") MultipartFile file) throws IOException {
+        return importService.importCsv(file.getInputStream());
+    }
+
+    @Operation(
+            summary = "Export filtered customers as CSV",
+            description = "Streams every customer matching the filters as a CSV file in a single response, "
+                    + "reading rows from a database cursor instead of paging."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "CSV stream of matching customers",
+            content = @Content(mediaType = "text/csv")
+    )
+    @PostMapping(value = "/customers/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Filter criteria for customers",
+                    content = @Content(schema = @Schema(implementation = CustomerFilterRequest.class))
+            )
+            @RequestBody(required = false) CustomerFilterRequest filter) {
+        return exportService.exportCsv(filter);
+    }
+
+    @Operation(
+            summary = "Stream all filtered customers as NDJSON",
+            description = "Streams every customer matching the filters in one response, one JSON object per line, "
+                    + "reading rows from a database cursor instead of paging. Use it instead of walking all pages of "
+                    + "/customers/filter; rows arrive as they are read and the server holds no result list."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "NDJSON stream of matching customers",
+                content = @Content(mediaType = "application/x-ndjson")),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort field", content = @Content)
+    })
+    @PostMapping(value = "/customers/filter/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilteredCustomers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Filter criteria for customers",
+                    content = @Content(schema = @Schema(implementation = CustomerFilterRequest.class))
+            )
+            @RequestBody(required = false) CustomerFilterRequest filter,
+            @Parameter(description = "Sort field: id, email or updatedAt", example = "id")
+            @RequestParam(required = false, defaultValue = "id") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)", example = "asc")
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection) {
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        return exportService.streamNdjson(filter, sortBy, direction);
+    }
+
+    @Operation(
+            summary = "Stream customer changes since a cursor",
+            description = "Streams customers created or updated after the given cursor as NDJSON, ordered by "
+                    + "(updatedAt, id). Each line holds the customer and the cursor to resume after it. Omit the "
+                    + "cursor for a full initial sync; repeat with the last cursor until fewer than limit lines return."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "NDJSON stream of changed customers",
+                content = @Content(mediaType = "application/x-ndjson")),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or limit", content = @Content)
+    })
+    @GetMapping(value = "/customers/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamChanges(
+            @Parameter(description = "Cursor from the last change processed; omit to start from the beginning")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of changes to return", example = "1000")
+            @RequestParam(defaultValue = "1000") int limit) {
+        return changeFeedService.streamChanges(cursor, limit);
+    }
 }
@@ -0,0 +1,46 @@
+package com.portability.users_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.portability.users_service.model.dto.BatchPortabilityRequest;
+import com.portability.users_service.model.dto.PortabilitySubmissionResponse;
+import com.portability.users_service.service.PortabilityService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Portability", description = "API for dispatching portability requests")
+public class PortabilityController {
+
+    @Autowired
+    private PortabilityService service;
+
+    @Operation(
+            summary = "Queue portability requests",
+            description = "Queue portability requests to be sent to the portability service in batches. "
+                    + "Either all requests of the call are queued or none are; on 429 or 503 retry after the Retry-After seconds."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Requests queued for dispatch"),
+        @ApiResponse(responseCode = "400", description = "Empty, invalid or too many requests", content = @Content),
+        @ApiResponse(responseCode = "429", description = "Dispatch queue full, nothing was queued", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Instance shutting down, nothing was queued", content = @Content)
+    })
+    @PostMapping("/portabilities")
+    public ResponseEntity<PortabilitySubmissionResponse> submitPortabilities(
+            @Valid
+            @RequestBody BatchPortabilityRequest request) {
+        return service.submitPortabilities(request.getRequests());
+    }
+}
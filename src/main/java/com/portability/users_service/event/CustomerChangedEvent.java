@@ -0,0 +1,9 @@
+package com.portability.users_service.event;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+
+/**
+ * Published after a customer write has committed, for components that keep
+ * derived copies of customer data in memory.
+ */
+public record CustomerChangedEvent(CustomerResponse customer) {}
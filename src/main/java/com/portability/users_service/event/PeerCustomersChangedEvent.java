@@ -0,0 +1,10 @@
+package com.portability.users_service.event;
+
+import java.util.List;
+
+/**
+ * Published when another instance reports committed customer writes through
+ * cache invalidation. {@code emails} is null when the keys are unknown: the
+ * peer asked for a flush or a batch from it went missing.
+ */
+public record PeerCustomersChangedEvent(List<String> emails) {}
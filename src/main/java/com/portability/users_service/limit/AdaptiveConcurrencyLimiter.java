@@ -0,0 +1,126 @@
+package com.portability.users_service.limit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.portability.users_service.config.LoadSheddingProperties;
+
+/**
+ * AIMD concurrency limit driven by request latency. Each completed request
+ * is compared with a moving baseline of requests to the same route; one
+ * slower than {@code latency-tolerance} times the baseline, or one that
+ * failed, multiplies the limit by {@code backoff-ratio} (at most once per
+ * round trip, so a slow burst counts once), while a fast one grows the limit
+ * by one. Either only happens when at least half of the limit was in use:
+ * below that, slow requests (a cache miss among hits) say nothing about
+ * congestion. A lasting shift in latency becomes the new baseline within
+ * roughly 50 requests.
+ *
+ * <p>Requests beyond the limit are refused rather than queued. Scans and
+ * bulk requests may only occupy {@code scan-share} and {@code bulk-share} of
+ * the limit, which leaves the rest to point lookups.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASELINE_WEIGHT = 0.02;
+
+    private final LoadSheddingProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<String, Double> baselineNanos = new HashMap<>();
+
+    private volatile double limit;
+    private long lastDecreaseNanos = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+
+    public AdaptiveConcurrencyLimiter(LoadSheddingProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * A permit to run the request, or null when it should be shed
+     */
+    public Permit tryAcquire(RequestPriority priority, String route) {
+        int allowed = allowed(priority);
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= allowed) {
+                return null;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return new Permit(route, current + 1, System.nanoTime());
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private int allowed(RequestPriority priority) {
+        double share = switch (priority) {
+            case POINT -> 1.0;
+            case SCAN -> properties.getScanShare();
+            case BULK -> properties.getBulkShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+    synchronized void onSample(String route, long rttNanos, int inflightAtStart, boolean failed, long nowNanos) {
+        Double baseline = baselineNanos.get(route);
+        boolean slow = baseline != null && rttNanos > baseline * properties.getLatencyTolerance();
+        baselineNanos.put(route, baseline == null ? rttNanos : baseline + BASELINE_WEIGHT * (rttNanos - baseline));
+
+        if (inflightAtStart * 2 < limit) {
+            return;
+        }
+        if (failed || slow) {
+            if (nowNanos - lastDecreaseNanos >= rttNanos) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                lastDecreaseNanos = nowNanos;
+            }
+        } else {
+            limit = Math.min(properties.getMaxLimit(), limit + 1);
+        }
+    }
+
+    public final class Permit {
+
+        private final String route;
+        private final int inflightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String route, int inflightAtStart, long startNanos) {
+            this.route = route;
+            this.inflightAtStart = inflightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Release the permit and feed the request's latency into the limit
+         */
+        public void complete(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+                long now = System.nanoTime();
+                onSample(route, now - startNanos, inflightAtStart, failed, now);
+            }
+        }
+
+        /**
+         * Release the permit without a sample, for requests whose duration
+         * says nothing about the database (long streams, client errors)
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+            }
+        }
+    }
+}
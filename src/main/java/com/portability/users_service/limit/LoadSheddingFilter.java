@@ -0,0 +1,151 @@
+package com.portability.users_service.limit;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.portability.users_service.config.LoadSheddingProperties;
+import com.portability.users_service.limit.AdaptiveConcurrencyLimiter.Permit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Puts the customer endpoints behind an {@link AdaptiveConcurrencyLimiter}.
+ * Requests over the limit get an immediate 503 with Retry-After instead of
+ * waiting for a database connection; health checks, metrics and the other
+ * endpoints are never shed.
+ *
+ * <p>Streaming responses keep their permit until the stream ends, but their
+ * duration isn't fed into the limit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.load-shedding", name = "enabled", havingValue = "true")
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final Set<String> BULK_PATHS = Set.of(
+            "/api/customers/import", "/api/customers/export", "/api/customers/filter/stream", "/api/customers/changes");
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String retryAfter;
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.limiter = new AdaptiveConcurrencyLimiter(properties);
+        this.retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("customer.concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase())
+                    .description("Customer requests shed with 503 because the concurrency limit was reached")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("customer.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent customer requests")
+                .register(meterRegistry);
+        Gauge.builder("customer.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Customer requests currently holding a permit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The priority of a request to {@code path}, or null when it isn't limited
+     */
+    static RequestPriority priorityOf(String path) {
+        if (BULK_PATHS.contains(path)) {
+            return RequestPriority.BULK;
+        }
+        if (path.equals("/api/customers/filter")) {
+            return RequestPriority.SCAN;
+        }
+        if (path.startsWith("/api/customers/") || path.startsWith("/api/customer/")) {
+            return RequestPriority.POINT;
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return priorityOf(path(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        RequestPriority priority = priorityOf(path);
+        Permit permit = limiter.tryAcquire(priority, routeOf(request.getMethod(), path));
+        if (permit == null) {
+            rejected.get(priority).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit));
+            } else if (!failed && response.getStatus() >= 400) {
+                // Rejected input and Bloom-filter 404s never reached the database
+                permit.release();
+            } else {
+                permit.complete(failed);
+            }
+        }
+    }
+
+    /**
+     * Latency baseline key: method and path with customer ids collapsed
+     */
+    static String routeOf(String method, String path) {
+        return method + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record ReleaseOnCompletion(Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still the same request
+        }
+    }
+}
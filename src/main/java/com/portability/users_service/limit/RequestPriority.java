@@ -0,0 +1,23 @@
+package com.portability.users_service.limit;
+
+/**
+ * How much of the concurrency limit a kind of request may occupy; lower
+ * priorities are shed first as the limit shrinks
+ */
+public enum RequestPriority {
+
+    /**
+     * Lookups by id, email or phone (single or batched) and registrations
+     */
+    POINT,
+
+    /**
+     * Paged filter queries
+     */
+    SCAN,
+
+    /**
+     * Imports, exports, NDJSON streams and the change feed
+     */
+    BULK
+}
@@ -1,10 +1,13 @@
 package com.portability.users_service.model;
 
+import java.util.Locale;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -14,7 +17,8 @@ import lombok.Data;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false, length = 50)
@@ -30,4 +34,28 @@ public class User {
 
     @Column(length = 20)
     private String phoneNumber;
+
+    /**
+     * {@link #phoneNumber} normalized to E.164 digits; null if it couldn't be normalized
+     */
+    private Long phoneKey;
+
+    // Lowercase, trimmed copies of the names and email for case-insensitive
+    // filtering through an index. Kept current by a database trigger (see V5 migration).
+
+    @Column(length = 50, insertable = false, updatable = false)
+    private String firstNameNorm;
+
+    @Column(length = 50, insertable = false, updatable = false)
+    private String lastNameNorm;
+
+    @Column(length = 50, insertable = false, updatable = false)
+    private String emailNorm;
+
+    /**
+     * A value as the {@code *Norm} columns hold it
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,14 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class BatchByEmailRequest {
+    @NotEmpty
+    private List<@Email @NotBlank String> emails;
+}
@@ -0,0 +1,13 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BatchByIdRequest {
+    @NotEmpty
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,13 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class BatchByPhoneNumberRequest {
+    @NotEmpty
+    private List<@NotBlank String> phoneNumbers;
+}
@@ -0,0 +1,14 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a batch customer lookup")
+public record BatchLookupResponse<K>(
+    @Schema(description = "Customers found, keyed by the requested value")
+    Map<K, CustomerResponse> found,
+    @Schema(description = "Requested values with no matching customer")
+    List<K> missing
+) {}
@@ -0,0 +1,14 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BatchPortabilityRequest {
+    @NotEmpty
+    private List<@NotNull @Valid CreatePortabilityRequest> requests;
+}
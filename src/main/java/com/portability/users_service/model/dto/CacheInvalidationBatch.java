@@ -0,0 +1,34 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Cache invalidations broadcast by one instance to its peers")
+public record CacheInvalidationBatch(
+    @Schema(description = "Random id of the sending process, new on every start")
+    @NotBlank
+    String origin,
+    @Schema(description = "Per-origin sequence number; heartbeats repeat the last one sent")
+    long sequence,
+    @Schema(description = "Drop every cached customer instead of the listed keys")
+    boolean flushAll,
+    @Schema(description = "Customer ids to evict")
+    @NotNull
+    List<@NotNull Long> ids,
+    @Schema(description = "Customer emails to evict, one per id")
+    @NotNull
+    List<String> emails
+) {
+
+    @JsonIgnore
+    @AssertTrue(message = "ids and emails must have the same size")
+    public boolean isAligned() {
+        return ids == null || emails == null || ids.size() == emails.size();
+    }
+}
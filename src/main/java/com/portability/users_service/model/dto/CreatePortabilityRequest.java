@@ -1,11 +1,15 @@
 package com.portability.users_service.model.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 @Schema(description = "Request to create a new portability request")
 public record CreatePortabilityRequest(
     @Schema(description = "Phone number to be ported", example = "555-1234")
+    @NotBlank
     String phoneNumber,
     @Schema(description = "Associated customer ID", example = "1")
+    @NotNull
     Long customerId
 ) {}
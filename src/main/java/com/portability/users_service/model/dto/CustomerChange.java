@@ -0,0 +1,11 @@
+package com.portability.users_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One line of the customer change feed")
+public record CustomerChange(
+    @Schema(description = "Resume token: pass it as cursor to continue after this change")
+    String cursor,
+    @Schema(description = "Current state of the changed customer")
+    CustomerResponse customer
+) {}
@@ -1,6 +1,7 @@
 package com.portability.users_service.model.dto;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -20,4 +21,17 @@ public record CustomerCsvRow(
     LocalDate createdAt,
     @Schema(description = "Customer last update date")
     LocalDate updatedAt
-) {}
+) {
+
+    /**
+     * Row from the stored timestamps, for queries that select straight into this record
+     */
+    public CustomerCsvRow(Long id, String firstName, String lastName, String email, String phoneNumber,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, firstName, lastName, email, phoneNumber, toDate(createdAt), toDate(updatedAt));
+    }
+
+    private static LocalDate toDate(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+}
@@ -1,5 +1,7 @@
 package com.portability.users_service.model.dto;
 
+import com.portability.users_service.model.enm.MatchMode;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,4 +26,8 @@ public class CustomerFilterRequest {
 
     @Schema(description = "Filter by customer's email")
     private String email;
+
+    @Schema(description = "How firstName, lastName and email are matched: EXACT and PREFIX use an index, "
+            + "CONTAINS (the default) scans", example = "PREFIX")
+    private MatchMode match;
 }
@@ -0,0 +1,13 @@
+package com.portability.users_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "CSV row rejected during a bulk import")
+public record CustomerImportRejection(
+    @Schema(description = "Line number in the uploaded file (header is line 1)", example = "42")
+    long line,
+    @Schema(description = "Email found in the rejected row, if any", example = "john.doe@email.com")
+    String email,
+    @Schema(description = "Reason the row was rejected", example = "Email already registered")
+    String reason
+) {}
@@ -0,0 +1,23 @@
+package com.portability.users_service.model.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Summary of a bulk customer import")
+public record CustomerImportResult(
+    @Schema(description = "Data rows read from the file", example = "100000")
+    long totalRows,
+    @Schema(description = "Customers inserted", example = "99990")
+    long imported,
+    @Schema(description = "Rows rejected", example = "10")
+    long rejected,
+    @Schema(description = "Wall-clock duration of the import in milliseconds", example = "8200")
+    long durationMs,
+    @Schema(description = "Throughput over the whole import", example = "12195.1")
+    double rowsPerSecond,
+    @Schema(description = "Details of rejected rows, capped at the configured maximum")
+    List<CustomerImportRejection> rejections,
+    @Schema(description = "Whether more rows were rejected than are listed", example = "false")
+    boolean rejectionsTruncated
+) {}
@@ -1,5 +1,7 @@
 package com.portability.users_service.model.dto;
 
+import java.time.LocalDateTime;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @Schema(description = "Response with customer information")
@@ -13,5 +15,7 @@ public record CustomerResponse (
     @Schema(description = "Customer's email address", example = "john.doe@email.com")
     String email,
     @Schema(description = "Customer's phone number", example = "555-1234")
-    String phoneNumber
+    String phoneNumber,
+    @Schema(description = "Last modification time; also the version behind the ETag", example = "2025-01-15T10:30:00.123456")
+    LocalDateTime updatedAt
 ){}
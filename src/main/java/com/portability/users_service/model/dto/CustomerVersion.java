@@ -0,0 +1,8 @@
+package com.portability.users_service.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer's id and last modification time, without the rest of the row
+ */
+public record CustomerVersion(Long id, LocalDateTime updatedAt) {}
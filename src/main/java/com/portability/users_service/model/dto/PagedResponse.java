@@ -2,6 +2,8 @@ package com.portability.users_service.model.dto;
 
 import java.util.List;
 
+import com.portability.users_service.model.enm.CountStrategy;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,12 +26,15 @@ public class PagedResponse<T> {
     @Schema(description = "Number of items per page", example = "20")
     private int size;
 
-    @Schema(description = "Total number of items across all pages", example = "100")
+    @Schema(description = "Total number of items across all pages, or -1 when not computed", example = "100")
     private long totalElements;
 
-    @Schema(description = "Total number of pages", example = "5")
+    @Schema(description = "Total number of pages, or -1 when not computed", example = "5")
     private int totalPages;
 
+    @Schema(description = "Strategy that produced totalElements", example = "EXACT")
+    private CountStrategy totalStrategy;
+
     @Schema(description = "Whether this is the last page", example = "false")
     private boolean last;
 
@@ -41,4 +46,7 @@ public class PagedResponse<T> {
 
     @Schema(description = "Whether the page is empty", example = "false")
     private boolean empty;
+
+    @Schema(description = "Token to request the next page in cursor mode; null on the last page")
+    private String nextCursor;
 }
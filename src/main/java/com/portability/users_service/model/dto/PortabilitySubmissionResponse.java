@@ -0,0 +1,11 @@
+package com.portability.users_service.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of queueing portability requests for dispatch")
+public record PortabilitySubmissionResponse(
+    @Schema(description = "Requests queued by this call", example = "250")
+    int accepted,
+    @Schema(description = "Requests waiting to be sent, including these", example = "1200")
+    int queueDepth
+) {}
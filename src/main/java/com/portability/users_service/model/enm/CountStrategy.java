@@ -0,0 +1,13 @@
+package com.portability.users_service.model.enm;
+
+/**
+ * How {@code totalElements} is produced for a page of results
+ */
+public enum CountStrategy {
+    /** Run a COUNT with the same filters as the page query */
+    EXACT,
+    /** Skip counting; only report whether a next page exists */
+    NONE,
+    /** Planner statistics for unfiltered queries, a short-lived cached count otherwise */
+    ESTIMATED
+}
@@ -0,0 +1,68 @@
+package com.portability.users_service.model.enm;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+
+/**
+ * Customer attributes that filter results can be ordered by. Only attributes
+ * with an index to read them in order are listed; sorting on anything else
+ * would sort the whole match set for every page.
+ */
+public enum CustomerSortField {
+    /** Primary key */
+    ID("id", Long::valueOf, CustomerResponse::id),
+    /** Unique index on email */
+    EMAIL("email", value -> value, CustomerResponse::email),
+    /** idx_customers_updated_at_id */
+    UPDATED_AT("updatedAt", LocalDateTime::parse, CustomerResponse::updatedAt);
+
+    private final String attribute;
+    private final Function<String, Object> parser;
+    private final Function<CustomerResponse, Object> accessor;
+
+    CustomerSortField(String attribute, Function<String, Object> parser,
+            Function<CustomerResponse, Object> accessor) {
+        this.attribute = attribute;
+        this.parser = parser;
+        this.accessor = accessor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * This attribute's value in a customer response
+     */
+    public Object valueOf(CustomerResponse customer) {
+        return accessor.apply(customer);
+    }
+
+    /**
+     * Convert a value previously written with {@code toString()} back to the attribute's type
+     */
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * Order by this attribute, then by id so rows with equal values keep a
+     * stable order across pages
+     */
+    public Sort sort(Sort.Direction direction) {
+        Sort sort = Sort.by(direction, attribute);
+        return this == ID ? sort : sort.and(Sort.by(direction, ID.attribute));
+    }
+
+    public static Optional<CustomerSortField> fromAttribute(String attribute) {
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equals(attribute))
+                .findFirst();
+    }
+}
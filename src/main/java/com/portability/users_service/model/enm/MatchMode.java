@@ -0,0 +1,14 @@
+package com.portability.users_service.model.enm;
+
+/**
+ * How the firstName, lastName and email filters compare against stored values.
+ * All modes ignore case and surrounding whitespace.
+ */
+public enum MatchMode {
+    /** Whole value equal; an index seek */
+    EXACT,
+    /** Value starts with the filter; an index range scan */
+    PREFIX,
+    /** Filter appears anywhere in the value; scans the table */
+    CONTAINS
+}
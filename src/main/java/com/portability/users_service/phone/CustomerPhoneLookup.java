@@ -0,0 +1,147 @@
+package com.portability.users_service.phone;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.portability.users_service.bloom.CustomerExistenceFilter;
+import com.portability.users_service.cache.CustomerCache;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.repo.CustomerRepo;
+
+/**
+ * Resolves customers by phone number: the number is normalized, mapped to a
+ * customer id through {@link PhoneIndex} and the row comes from the id cache.
+ * Only numbers the index doesn't know (or knows stale) reach the database,
+ * and of those, numbers the existence filter rules out are answered as absent.
+ */
+@Component
+public class CustomerPhoneLookup {
+
+    private final PhoneNumberNormalizer normalizer;
+    private final PhoneIndex phoneIndex;
+    private final CustomerCache cache;
+    private final CustomerRepo repo;
+    private final CustomerExistenceFilter existenceFilter;
+    private final int chunkSize;
+
+    public CustomerPhoneLookup(PhoneNumberNormalizer normalizer, PhoneIndex phoneIndex,
+            CustomerCache cache, CustomerRepo repo, ObjectProvider<CustomerExistenceFilter> existenceFilter,
+            @Value("${customer.batch.chunk-size:500}") int chunkSize) {
+        this.normalizer = normalizer;
+        this.phoneIndex = phoneIndex;
+        this.cache = cache;
+        this.repo = repo;
+        this.existenceFilter = existenceFilter.getIfAvailable();
+        this.chunkSize = chunkSize;
+    }
+
+    public CustomerResponse find(String phoneNumber) {
+        long phoneKey = normalizer.toKey(phoneNumber);
+        if (phoneKey == PhoneNumberNormalizer.NO_KEY) {
+            return repo.findLatestResponseByPhoneNumber(phoneNumber);
+        }
+        if (existenceFilter != null && !existenceFilter.mightContainPhone(phoneKey)) {
+            return null;
+        }
+
+        long customerId = phoneIndex.get(phoneKey);
+        if (customerId != LongLongHashMap.MISSING) {
+            CustomerResponse customer = cache.getById(customerId);
+            if (customer != null && normalizer.toKey(customer.phoneNumber()) == phoneKey) {
+                return customer;
+            }
+        }
+
+        CustomerResponse customer = repo.findLatestResponseByPhoneKey(phoneKey);
+        if (customer == null) {
+            if (existenceFilter != null) {
+                existenceFilter.recordPhoneFalsePositive();
+            }
+            return null;
+        }
+        phoneIndex.put(phoneKey, customer.id());
+        return customer;
+    }
+
+    /**
+     * Customers for the given phone numbers, keyed by the number as given;
+     * numbers without a customer are absent from the result
+     */
+    public Map<String, CustomerResponse> findAll(Collection<String> phoneNumbers) {
+        Map<String, CustomerResponse> found = new HashMap<>();
+        Map<String, Long> indexedIds = new HashMap<>();
+        Map<Long, List<String>> unresolved = new HashMap<>();
+        List<String> unnormalized = new ArrayList<>();
+
+        for (String phoneNumber : phoneNumbers) {
+            long phoneKey = normalizer.toKey(phoneNumber);
+            if (phoneKey == PhoneNumberNormalizer.NO_KEY) {
+                unnormalized.add(phoneNumber);
+                continue;
+            }
+            if (existenceFilter != null && !existenceFilter.mightContainPhone(phoneKey)) {
+                continue;
+            }
+            long customerId = phoneIndex.get(phoneKey);
+            if (customerId == LongLongHashMap.MISSING) {
+                unresolved.computeIfAbsent(phoneKey, key -> new ArrayList<>()).add(phoneNumber);
+            } else {
+                indexedIds.put(phoneNumber, customerId);
+            }
+        }
+
+        Map<Long, CustomerResponse> indexed = cache.getAllById(indexedIds.values());
+        indexedIds.forEach((phoneNumber, customerId) -> {
+            CustomerResponse customer = indexed.get(customerId);
+            long phoneKey = normalizer.toKey(phoneNumber);
+            if (customer != null && normalizer.toKey(customer.phoneNumber()) == phoneKey) {
+                found.put(phoneNumber, customer);
+            } else {
+                unresolved.computeIfAbsent(phoneKey, key -> new ArrayList<>()).add(phoneNumber);
+            }
+        });
+
+        // Stored keys were produced by the same normalizer, so re-deriving them groups the rows
+        Map<Long, CustomerResponse> byKey = new HashMap<>();
+        for (CustomerResponse customer : inChunks(new ArrayList<>(unresolved.keySet()), repo::findResponsesByPhoneKeyIn)) {
+            byKey.merge(normalizer.toKey(customer.phoneNumber()), customer, CustomerPhoneLookup::newest);
+        }
+        byKey.forEach((phoneKey, customer) -> {
+            List<String> requested = unresolved.get(phoneKey);
+            if (requested != null) {
+                phoneIndex.put(phoneKey, customer.id());
+                requested.forEach(phoneNumber -> found.put(phoneNumber, customer));
+            }
+        });
+        if (existenceFilter != null) {
+            unresolved.keySet().stream()
+                    .filter(phoneKey -> !byKey.containsKey(phoneKey))
+                    .forEach(phoneKey -> existenceFilter.recordPhoneFalsePositive());
+        }
+
+        for (CustomerResponse customer : inChunks(unnormalized, repo::findResponsesByPhoneNumberIn)) {
+            found.merge(customer.phoneNumber(), customer, CustomerPhoneLookup::newest);
+        }
+        return found;
+    }
+
+    private <K> List<CustomerResponse> inChunks(List<K> keys, Function<List<K>, List<CustomerResponse>> query) {
+        List<CustomerResponse> customers = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            customers.addAll(query.apply(keys.subList(from, Math.min(from + chunkSize, keys.size()))));
+        }
+        return customers;
+    }
+
+    private static CustomerResponse newest(CustomerResponse current, CustomerResponse candidate) {
+        return candidate.id() > current.id() ? candidate : current;
+    }
+}
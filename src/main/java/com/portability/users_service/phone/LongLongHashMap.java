@@ -0,0 +1,153 @@
+package com.portability.users_service.phone;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing {@code long -> long} hash map with linear probing and no
+ * boxing. Key {@code 0} is reserved as the empty-slot marker. Reads are
+ * optimistic and lock-free unless they race with a write.
+ */
+public class LongLongHashMap {
+
+    public static final long MISSING = -1L;
+
+    private static final double MAX_LOAD = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD) - 1) << 1;
+        this.table = new Table(capacity);
+    }
+
+    /**
+     * Value for {@code key}, or {@link #MISSING}
+     */
+    public long get(long key) {
+        if (key == 0) {
+            return MISSING;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long value = find(table, key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (size + 1 > table.keys.length * MAX_LOAD) {
+                table = table.resized(table.keys.length << 1);
+            }
+            if (table.insert(key, value)) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Heap used by the two backing arrays
+     */
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return 2L * (16 + 8L * table.keys.length);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static long find(Table table, long key) {
+        long[] keys = table.keys;
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return table.values[slot];
+            }
+            if (current == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    /**
+     * Spread sequential phone numbers across the table (murmur3 finalizer)
+     */
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Keys and values swapped as one reference so a racing optimistic read
+     * never pairs arrays of different sizes
+     */
+    private static final class Table {
+
+        private final long[] keys;
+        private final long[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        /**
+         * @return true if the key was not present before
+         */
+        boolean insert(long key, long value) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long current = keys[slot];
+                if (current == key) {
+                    values[slot] = value;
+                    return false;
+                }
+                if (current == 0) {
+                    values[slot] = value;
+                    keys[slot] = key;
+                    return true;
+                }
+            }
+        }
+
+        Table resized(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    resized.insert(keys[i], values[i]);
+                }
+            }
+            return resized;
+        }
+    }
+}
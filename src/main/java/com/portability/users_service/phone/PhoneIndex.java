@@ -0,0 +1,119 @@
+package com.portability.users_service.phone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.repo.CustomerSpecification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory map from normalized phone key to customer id. Loaded from the
+ * table at startup (filling {@code phone_key} for rows written before it
+ * existed) and updated on every customer write.
+ *
+ * <p>A hit is only a hint: callers must check that the customer they fetch
+ * still has that phone. A miss is not authoritative either, since other
+ * instances write customers too.
+ */
+@Component
+public class PhoneIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhoneIndex.class);
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final CustomerRepo repo;
+    private final PhoneNumberNormalizer normalizer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LongLongHashMap ids = new LongLongHashMap(1 << 16);
+
+    public PhoneIndex(CustomerRepo repo, PhoneNumberNormalizer normalizer, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repo = repo;
+        this.normalizer = normalizer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("customer.phone.index.size", ids, LongLongHashMap::size)
+                .description("Phone numbers held in the in-memory phone index")
+                .register(meterRegistry);
+        Gauge.builder("customer.phone.index.bytes", ids, LongLongHashMap::estimatedBytes)
+                .description("Heap used by the in-memory phone index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Customer id last seen with this phone key, or {@link LongLongHashMap#MISSING}
+     */
+    public long get(long phoneKey) {
+        return ids.get(phoneKey);
+    }
+
+    public void put(long phoneKey, long customerId) {
+        if (phoneKey != PhoneNumberNormalizer.NO_KEY) {
+            ids.put(phoneKey, customerId);
+        }
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        put(normalizer.toKey(event.customer().phoneNumber()), event.customer().id());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        Thread.ofVirtual().name("phone-index-bootstrap").start(this::load);
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        List<Object[]> backfill = new ArrayList<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Customer> customers = repo.streamAll(
+                        CustomerSpecification.hasPhoneNumber(), Sort.by("id"), FETCH_SIZE)) {
+                    customers.forEach(customer -> {
+                        long phoneKey = customer.getPhoneKey() != null
+                                ? customer.getPhoneKey()
+                                : normalizer.toKey(customer.getPhoneNumber());
+                        put(phoneKey, customer.getId());
+                        if (customer.getPhoneKey() == null && phoneKey != PhoneNumberNormalizer.NO_KEY) {
+                            backfill.add(new Object[] { phoneKey, customer.getId() });
+                        }
+                    });
+                }
+            });
+            logger.info("Phone index loaded: {} numbers in {} ms", ids.size(), (System.nanoTime() - start) / 1_000_000);
+
+            for (int from = 0; from < backfill.size(); from += BACKFILL_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("UPDATE customers SET phone_key = ? WHERE id = ? AND phone_key IS NULL",
+                        backfill.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, backfill.size())));
+            }
+            if (!backfill.isEmpty()) {
+                logger.info("Backfilled phone_key for {} customers", backfill.size());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Phone index load failed; phone lookups fall back to the database", e);
+        }
+    }
+}
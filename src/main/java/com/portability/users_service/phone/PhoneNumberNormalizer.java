@@ -0,0 +1,84 @@
+package com.portability.users_service.phone;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns free-form phone numbers into E.164 digits packed in a {@code long},
+ * so {@code +52 55 1234 5678}, {@code 0052-55-1234-5678} and
+ * {@code (55) 1234 5678} all map to {@code 525512345678}.
+ */
+@Component
+public class PhoneNumberNormalizer {
+
+    /** Returned for input that can't be normalized; E.164 numbers are never zero */
+    public static final long NO_KEY = 0L;
+
+    private static final int MIN_E164_DIGITS = 8;
+    private static final int MAX_E164_DIGITS = 15;
+
+    /**
+     * Mexico's numbering-plan change of August 2019 (IFT, Plan Técnico
+     * Fundamental de Numeración) dropped the "1" dialled after +52 for mobiles,
+     * so {@code +52 1 55 1234 5678} became {@code +52 55 1234 5678}. Numbers
+     * stored in the old 13-digit form still show up; only that exact shape is
+     * rewritten.
+     */
+    private static final String LEGACY_MEXICAN_MOBILE_PREFIX = "521";
+    private static final String MEXICAN_COUNTRY_CODE = "52";
+    private static final int LEGACY_MEXICAN_MOBILE_DIGITS = 13;
+
+    private final String defaultCountryCode;
+    private final int nationalNumberLength;
+
+    public PhoneNumberNormalizer(
+            @Value("${customer.phone.default-country-code:52}") String defaultCountryCode,
+            @Value("${customer.phone.national-number-length:10}") int nationalNumberLength) {
+        this.defaultCountryCode = defaultCountryCode;
+        this.nationalNumberLength = nationalNumberLength;
+    }
+
+    /**
+     * E.164 digits of the number as a {@code long}, or {@link #NO_KEY} if the
+     * input contains letters or doesn't have a plausible number of digits.
+     * National numbers get the default country code.
+     */
+    public long toKey(String phoneNumber) {
+        if (phoneNumber == null) {
+            return NO_KEY;
+        }
+        String trimmed = phoneNumber.trim();
+        boolean international = trimmed.startsWith("+") || trimmed.startsWith("00");
+
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (Character.isLetter(c)) {
+                return NO_KEY;
+            }
+        }
+        if (trimmed.startsWith("00")) {
+            digits.delete(0, 2);
+        }
+
+        String e164;
+        if (international) {
+            e164 = digits.toString();
+        } else if (digits.length() == nationalNumberLength) {
+            e164 = defaultCountryCode + digits;
+        } else {
+            e164 = digits.toString();
+        }
+
+        if (e164.length() == LEGACY_MEXICAN_MOBILE_DIGITS && e164.startsWith(LEGACY_MEXICAN_MOBILE_PREFIX)) {
+            e164 = MEXICAN_COUNTRY_CODE + e164.substring(LEGACY_MEXICAN_MOBILE_PREFIX.length());
+        }
+
+        if (e164.length() < MIN_E164_DIGITS || e164.length() > MAX_E164_DIGITS) {
+            return NO_KEY;
+        }
+        return Long.parseLong(e164);
+    }
+}
@@ -0,0 +1,26 @@
+package com.portability.users_service.portability;
+
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import com.portability.users_service.model.dto.CreatePortabilityRequest;
+
+/**
+ * Downstream portability service, resolved through Eureka unless
+ * {@code customer.portability.url} points somewhere else (a local stub).
+ * Every attempt to send the same batch carries the same
+ * {@value #IDEMPOTENCY_KEY}, so the service can drop a retried duplicate.
+ */
+@FeignClient(name = "portability-service", url = "${customer.portability.url:}", path = "/api/portabilities")
+public interface PortabilityClient {
+
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @PostMapping("/batch")
+    void createPortabilities(@RequestHeader(IDEMPOTENCY_KEY) String idempotencyKey,
+            @RequestBody List<CreatePortabilityRequest> requests);
+}
@@ -0,0 +1,246 @@
+package com.portability.users_service.portability;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.portability.users_service.config.PortabilityDispatchProperties;
+import com.portability.users_service.model.dto.CreatePortabilityRequest;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends portability requests downstream in batches. Submissions go into a
+ * bounded buffer; {@code concurrency} sender threads each take up to
+ * {@code batch-size} requests (waiting at most {@code max-wait} for a batch
+ * to fill) and post them through {@link PortabilityClient}, retrying 429,
+ * 5xx and connection failures with jittered exponential backoff under one
+ * idempotency key per batch. Other I/O failures, such as read timeouts, may
+ * come after the batch was processed and are not retried. When the buffer
+ * is full submissions are refused as a whole so callers can back off.
+ *
+ * <p>Submissions already accepted are still sent on shutdown, for up to
+ * {@code shutdown-timeout}.
+ */
+@Component
+public class PortabilityDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortabilityDispatcher.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PortabilityClient client;
+    private final PortabilityDispatchProperties properties;
+    private final BlockingQueue<CreatePortabilityRequest> queue = new LinkedBlockingQueue<>();
+    // Reserved before enqueueing so a submission is accepted or refused whole
+    private final AtomicInteger queued = new AtomicInteger();
+    private final List<Thread> senders = new ArrayList<>();
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter retries;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean accepting;
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    public PortabilityDispatcher(PortabilityClient client, PortabilityDispatchProperties properties,
+            MeterRegistry meterRegistry) {
+        this.client = client;
+        this.properties = properties;
+        this.sent = Counter.builder("customer.portability.dispatched").tag("outcome", "sent")
+                .description("Portability requests accepted by the downstream service")
+                .register(meterRegistry);
+        this.failed = Counter.builder("customer.portability.dispatched").tag("outcome", "failed")
+                .description("Portability requests dropped after a permanent error or the last retry")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("customer.portability.rejected")
+                .description("Portability requests refused because the queue was full")
+                .register(meterRegistry);
+        this.retries = Counter.builder("customer.portability.retries")
+                .description("Batch sends retried after a transient failure")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("customer.portability.batch.size")
+                .description("Portability requests per downstream call")
+                .register(meterRegistry);
+        Gauge.builder("customer.portability.queue.depth", queued, AtomicInteger::get)
+                .description("Portability requests waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        accepting = true;
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            senders.add(Thread.ofPlatform().daemon().name("portability-dispatch-" + i).start(this::sendLoop));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        stopping = true;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (Thread sender : senders) {
+            sender.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        // Senders still busy give up their retries; the call in progress is bounded by its timeouts
+        running = false;
+        for (Thread sender : senders) {
+            sender.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        List<CreatePortabilityRequest> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        if (!dropped.isEmpty()) {
+            queued.addAndGet(-dropped.size());
+            failed.increment(dropped.size());
+            logger.warn("Shutting down with {} portability requests not dispatched", dropped.size());
+        }
+    }
+
+    /**
+     * Queue all requests, or none of them when they don't fit
+     */
+    public Submission submit(List<CreatePortabilityRequest> requests) {
+        if (!accepting) {
+            return Submission.STOPPED;
+        }
+        int current;
+        do {
+            current = queued.get();
+            if (current + requests.size() > properties.getQueueCapacity()) {
+                rejected.increment(requests.size());
+                return Submission.QUEUE_FULL;
+            }
+        } while (!queued.compareAndSet(current, current + requests.size()));
+        queue.addAll(requests);
+        return Submission.ACCEPTED;
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private void sendLoop() {
+        List<CreatePortabilityRequest> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                CreatePortabilityRequest first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    CreatePortabilityRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queued.addAndGet(-batch.size());
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Portability batch of {} failed", batch.size(), e);
+                failed.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<CreatePortabilityRequest> batch) throws InterruptedException {
+        batchSizes.record(batch.size());
+        String idempotencyKey = UUID.randomUUID().toString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                client.createPortabilities(idempotencyKey, batch);
+                sent.increment(batch.size());
+                return;
+            } catch (FeignException e) {
+                if (!isTransient(e) || attempt >= properties.getMaxAttempts() || !running) {
+                    logger.error("Dropping portability batch of {} after {} attempt(s): {}",
+                            batch.size(), attempt, e.getMessage());
+                    failed.increment(batch.size());
+                    return;
+                }
+                retries.increment();
+                Thread.sleep(backoff(e, attempt));
+            }
+        }
+    }
+
+    /**
+     * Throttling and server errors are worth retrying, and so are I/O errors
+     * (no status) from before the request went out; one after it, such as a
+     * read timeout, may follow a batch the service already processed
+     */
+    private static boolean isTransient(FeignException e) {
+        if (e.status() == 429 || e.status() >= 500) {
+            return true;
+        }
+        return e instanceof RetryableException && e.status() < 0 && neverSent(e);
+    }
+
+    private static boolean neverSent(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The downstream Retry-After when it sent one, otherwise full jitter
+     * over an exponentially growing cap
+     */
+    private Duration backoff(FeignException e, int attempt) {
+        if (e instanceof RetryableException retryable && retryable.retryAfter() != null) {
+            long millis = retryable.retryAfter() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.clamp(millis, 0, properties.getMaxBackoff().toMillis()));
+        }
+        long cap = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    public enum Submission {
+        ACCEPTED, QUEUE_FULL, STOPPED
+    }
+}
@@ -0,0 +1,71 @@
+package com.portability.users_service.repo;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerCsvRow;
+import com.portability.users_service.model.dto.CustomerResponse;
+
+/**
+ * Queries that Spring Data derived methods can't express, mixed into {@link CustomerRepo}.
+ */
+public interface CustomerQueryRepo {
+
+    /**
+     * Stream customers matching the specification through a server-side cursor.
+     * Rows are detached as they are read, so memory stays flat regardless of
+     * the result size. Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<Customer> streamAll(Specification<Customer> spec, Sort sort, int fetchSize);
+
+    /**
+     * Like {@link #streamAll} but selected straight into {@link CustomerResponse}
+     * records, so no entities are ever attached to the persistence context.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<CustomerResponse> streamResponses(Specification<Customer> spec, Sort sort, int fetchSize);
+
+    /**
+     * Like {@link #streamResponses} but selected straight into export rows.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<CustomerCsvRow> streamCsvRows(Specification<Customer> spec, Sort sort, int fetchSize);
+
+    /**
+     * Page of customers matching the specification, selected straight into
+     * {@link CustomerResponse} records in a read-only transaction
+     */
+    Page<CustomerResponse> findResponses(Specification<Customer> spec, Pageable pageable);
+
+    /**
+     * Like {@link #findResponses} without the count query; one extra row is
+     * read to tell whether a next page exists
+     */
+    Slice<CustomerResponse> findResponseSlice(Specification<Customer> spec, Pageable pageable);
+
+    /**
+     * Up to {@code limit} customers past {@code position} in {@code sort}
+     * order, as a {@link #findResponseSlice} seeking on the sort keys instead
+     * of skipping an offset. The position holds a value for every sort
+     * property, or none for the first page.
+     */
+    Slice<CustomerResponse> findResponsesAfter(Specification<Customer> spec, Sort sort,
+            KeysetScrollPosition position, int limit);
+
+    /**
+     * Stream up to {@code limit} customers whose {@code (updatedAt, id)} is
+     * past {@code (after, afterId)} (all of them when {@code after} is null)
+     * and whose {@code updatedAt} is not later than {@code until}, in that
+     * order. Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<CustomerResponse> streamChanges(LocalDateTime after, long afterId, LocalDateTime until,
+            int limit, int fetchSize);
+}
@@ -0,0 +1,207 @@
+package com.portability.users_service.repo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerCsvRow;
+import com.portability.users_service.model.dto.CustomerResponse;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class CustomerQueryRepoImpl implements CustomerQueryRepo {
+
+    private static final String[] RESPONSE_ATTRIBUTES = {
+        "id", "firstName", "lastName", "email", "phoneNumber", "updatedAt"
+    };
+
+    private static final String[] CSV_ROW_ATTRIBUTES = {
+        "id", "firstName", "lastName", "email", "phoneNumber", "createdAt", "updatedAt"
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Customer> streamAll(Specification<Customer> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = criteriaBuilder.createQuery(Customer.class);
+        Root<Customer> root = query.from(Customer.class);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(customer -> {
+                    entityManager.detach(customer);
+                    return customer;
+                });
+    }
+
+    @Override
+    public Stream<CustomerResponse> streamResponses(Specification<Customer> spec, Sort sort, int fetchSize) {
+        return responseQuery(spec, Pageable.unpaged(sort), -1)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<CustomerCsvRow> streamCsvRows(Specification<Customer> spec, Sort sort, int fetchSize) {
+        return projectionQuery(CustomerCsvRow.class, CSV_ROW_ATTRIBUTES, spec, Pageable.unpaged(sort), -1)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerResponse> findResponses(Specification<Customer> spec, Pageable pageable) {
+        List<CustomerResponse> content = responseQuery(spec, pageable, pageable.isPaged() ? pageable.getPageSize() : -1)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerResponse> findResponseSlice(Specification<Customer> spec, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(responseQuery(spec, pageable, -1).getResultList(), pageable, false);
+        }
+        List<CustomerResponse> content = responseQuery(spec, pageable, pageable.getPageSize() + 1).getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerResponse> findResponsesAfter(Specification<Customer> spec, Sort sort,
+            KeysetScrollPosition position, int limit) {
+        Specification<Customer> seek = (root, query, criteriaBuilder) -> seekPredicate(
+                sort, position.getKeys(), root, criteriaBuilder);
+        return findResponseSlice(spec.and(seek), PageRequest.of(0, limit, sort));
+    }
+
+    @Override
+    public Stream<CustomerResponse> streamChanges(LocalDateTime after, long afterId, LocalDateTime until,
+            int limit, int fetchSize) {
+        // Row-value comparison lets PostgreSQL seek idx_customers_updated_at_id directly
+        String jpql = CustomerRepo.SELECT_RESPONSE
+                + " where c.updatedAt <= :until"
+                + (after == null ? "" : " and (c.updatedAt, c.id) > (:after, :afterId)")
+                + " order by c.updatedAt, c.id";
+        TypedQuery<CustomerResponse> query = entityManager.createQuery(jpql, CustomerResponse.class)
+                .setParameter("until", until)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (after != null) {
+            query.setParameter("after", after).setParameter("afterId", afterId);
+        }
+        return query.getResultStream();
+    }
+
+    /**
+     * Rows past {@code keys} in {@code sort} order: for sort properties
+     * {@code a, b} that is {@code a > :a or (a = :a and b > :b)}, with
+     * {@code <} for descending ones. Null (no restriction) for the first page.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate seekPredicate(Sort sort, Map<String, Object> keys, Root<Customer> root,
+            CriteriaBuilder criteriaBuilder) {
+        if (keys.isEmpty()) {
+            return null;
+        }
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<Comparable> attribute = root.get(order.getProperty());
+            Comparable value = (Comparable) keys.get(order.getProperty());
+            if (value == null) {
+                throw new IllegalArgumentException("No key for sort property " + order.getProperty());
+            }
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(order.isAscending()
+                    ? criteriaBuilder.greaterThan(attribute, value)
+                    : criteriaBuilder.lessThan(attribute, value));
+            alternatives.add(criteriaBuilder.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(criteriaBuilder.equal(attribute, value));
+        }
+        return criteriaBuilder.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    private TypedQuery<CustomerResponse> responseQuery(Specification<Customer> spec, Pageable pageable, int maxResults) {
+        return projectionQuery(CustomerResponse.class, RESPONSE_ATTRIBUTES, spec, pageable, maxResults);
+    }
+
+    /**
+     * Customers matching the specification selected through the record
+     * constructor taking {@code attributes}, in order
+     */
+    private <T> TypedQuery<T> projectionQuery(Class<T> type, String[] attributes, Specification<Customer> spec,
+            Pageable pageable, int maxResults) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<Customer> root = query.from(Customer.class);
+        query.select(criteriaBuilder.construct(type, Stream.of(attributes)
+                .map(root::get)
+                .toArray(Expression[]::new)));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        }
+        if (maxResults > 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return typedQuery;
+    }
+
+    private long count(Specification<Customer> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Customer> root = query.from(Customer.class);
+        query.select(criteriaBuilder.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,16 +1,71 @@
 package com.portability.users_service.repo;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.CustomerVersion;
 
 @Repository
-public interface CustomerRepo extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
+public interface CustomerRepo extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer>, CustomerQueryRepo {
+
+    /** Select list that builds {@link CustomerResponse} rows without loading entities */
+    String SELECT_RESPONSE = "select new com.portability.users_service.model.dto.CustomerResponse("
+            + "c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.updatedAt) from Customer c";
+
+    boolean existsByEmail(String email);
+
+    @Query(SELECT_RESPONSE + " where c.id = :id")
+    CustomerResponse findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + " where c.id in :ids")
+    List<CustomerResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_RESPONSE + " where c.email = :email")
+    CustomerResponse findResponseByEmail(@Param("email") String email);
+
+    @Query(SELECT_RESPONSE + " where c.email in :emails")
+    List<CustomerResponse> findResponsesByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Newest customer with the phone number exactly as stored
+     */
+    @Query(SELECT_RESPONSE + " where c.phoneNumber = :phoneNumber order by c.id desc limit 1")
+    CustomerResponse findLatestResponseByPhoneNumber(@Param("phoneNumber") String phoneNumber);
+
+    /**
+     * Newest customer with the normalized phone key
+     */
+    @Query(SELECT_RESPONSE + " where c.phoneKey = :phoneKey order by c.id desc limit 1")
+    CustomerResponse findLatestResponseByPhoneKey(@Param("phoneKey") Long phoneKey);
+
+    @Query(SELECT_RESPONSE + " where c.phoneNumber in :phoneNumbers")
+    List<CustomerResponse> findResponsesByPhoneNumberIn(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    @Query(SELECT_RESPONSE + " where c.phoneKey in :phoneKeys")
+    List<CustomerResponse> findResponsesByPhoneKeyIn(@Param("phoneKeys") Collection<Long> phoneKeys);
+
+    /**
+     * Current version of each customer, to check copies held elsewhere without loading rows
+     */
+    @Query("select new com.portability.users_service.model.dto.CustomerVersion(c.id, c.updatedAt)"
+            + " from Customer c where c.id in :ids")
+    List<CustomerVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
 
-    Customer findByEmail(String email);
+    @Query("select c.email from Customer c where c.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
-    Customer findByPhoneNumber(String phoneNumber);
+    /**
+     * Row count estimate from planner statistics; negative if the table was never analyzed
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('customers')", nativeQuery = true)
+    long estimateCount();
 
 }
@@ -1,60 +1,105 @@
 package com.portability.users_service.repo;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.domain.Specification;
 
 import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.User;
 import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.enm.MatchMode;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 
 public class CustomerSpecification {
 
+    private static final char LIKE_ESCAPE = '\\';
+
     /**
-     * Create a specification based on filter request
+     * Create a specification based on filter request. Fields are compared
+     * through their normalized columns, so {@link MatchMode#EXACT} and
+     * {@link MatchMode#PREFIX} can use the B-tree indexes on them.
      */
     public static Specification<Customer> filterBy(CustomerFilterRequest filter) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
+            MatchMode match = filter.getMatch() == null ? MatchMode.CONTAINS : filter.getMatch();
 
             // Search across multiple fields
             if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
-                String searchPattern = "%" + filter.getSearch().toLowerCase() + "%";
+                String searchPattern = pattern(MatchMode.CONTAINS, filter.getSearch());
                 Predicate searchPredicate = criteriaBuilder.or(
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("firstName")), searchPattern),
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("lastName")), searchPattern),
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), searchPattern)
+                    criteriaBuilder.like(root.get("firstNameNorm"), searchPattern, LIKE_ESCAPE),
+                    criteriaBuilder.like(root.get("lastNameNorm"), searchPattern, LIKE_ESCAPE),
+                    criteriaBuilder.like(root.get("emailNorm"), searchPattern, LIKE_ESCAPE)
                 );
                 predicates.add(searchPredicate);
             }
 
             // Filter by first name
             if (filter.getFirstName() != null && !filter.getFirstName().trim().isEmpty()) {
-                predicates.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("firstName")),
-                    "%" + filter.getFirstName().toLowerCase() + "%"
-                ));
+                predicates.add(matches(criteriaBuilder, root.get("firstNameNorm"), match, filter.getFirstName()));
             }
 
             // Filter by last name
             if (filter.getLastName() != null && !filter.getLastName().trim().isEmpty()) {
-                predicates.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("lastName")),
-                    "%" + filter.getLastName().toLowerCase() + "%"
-                ));
+                predicates.add(matches(criteriaBuilder, root.get("lastNameNorm"), match, filter.getLastName()));
             }
 
             // Filter by email
             if (filter.getEmail() != null && !filter.getEmail().trim().isEmpty()) {
-                predicates.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("email")),
-                    "%" + filter.getEmail().toLowerCase() + "%"
-                ));
+                predicates.add(matches(criteriaBuilder, root.get("emailNorm"), match, filter.getEmail()));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    private static Predicate matches(CriteriaBuilder criteriaBuilder, Expression<String> column,
+            MatchMode match, String value) {
+        return match == MatchMode.EXACT
+                ? criteriaBuilder.equal(column, User.normalize(value))
+                : criteriaBuilder.like(column, pattern(match, value), LIKE_ESCAPE);
+    }
+
+    /**
+     * LIKE pattern for the normalized value; wildcards typed by the caller
+     * match literally, so a prefix stays a prefix
+     */
+    private static String pattern(MatchMode match, String value) {
+        String escaped = User.normalize(value)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return match == MatchMode.PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+
+    /**
+     * Restrict to the given customer ids
+     */
+    public static Specification<Customer> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> ids.isEmpty()
+                ? criteriaBuilder.disjunction()
+                : root.get("id").in(ids);
+    }
+
+    /**
+     * Customers modified after the given instant
+     */
+    public static Specification<Customer> updatedAfter(LocalDateTime since) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.greaterThan(root.get("updatedAt"), since);
+    }
+
+    /**
+     * Customers with a phone number on file
+     */
+    public static Specification<Customer> hasPhoneNumber() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("phoneNumber"));
+    }
 }
@@ -0,0 +1,159 @@
+package com.portability.users_service.search;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.repo.CustomerSpecification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Trigram index over first name, last name and email used to answer the
+ * free-text {@code search} filter without a sequential scan. Built from the
+ * table once the application is ready, kept current from registrations and
+ * from periodic {@code updatedAt} deltas, and rebuilt from scratch on a
+ * longer interval to drop postings left behind by updated rows.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.search-index", name = "enabled", havingValue = "true")
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    private static final int FETCH_SIZE = 5000;
+
+    /** Re-read a margin before the watermark so rows committed late aren't skipped */
+    private static final Duration DELTA_OVERLAP = Duration.ofMinutes(1);
+
+    private final CustomerRepo repo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    @Value("${customer.search-index.max-candidates:10000}")
+    private int maxCandidates;
+
+    private volatile TrigramIndex index;
+    private volatile LocalDateTime watermark;
+
+    public CustomerSearchIndex(CustomerRepo repo, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.repo = repo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("customer.search.index.bytes", this, self -> self.index == null ? 0 : self.index.estimatedBytes())
+                .description("Approximate heap used by the customer search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.documents", this, self -> self.index == null ? 0 : self.index.documents())
+                .description("Customer rows added to the search index, counting re-indexed updates")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Rows updated after this instant may be missing from {@link #candidates}
+     * (written by another instance, or committed after the last load); callers
+     * must include them by {@code updatedAt}. Read it before the candidates:
+     * loads add rows before moving it forward. Null until the index is built.
+     */
+    public LocalDateTime indexedUntil() {
+        LocalDateTime current = watermark;
+        return current == null ? null : current.minus(DELTA_OVERLAP);
+    }
+
+    /**
+     * Candidate customer ids for a search term, or {@code null} when the index
+     * can't narrow the search (not built yet, term shorter than three
+     * characters, or too many candidates) and the caller should fall back to a scan.
+     */
+    public long[] candidates(String term) {
+        TrigramIndex current = index;
+        if (current == null || term == null) {
+            return null;
+        }
+        return current.candidates(term.trim(), maxCandidates);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        Thread.ofVirtual().name("customer-search-index-bootstrap").start(this::rebuild);
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        TrigramIndex current = index;
+        if (current != null) {
+            current.add(event.customer().id(), event.customer().firstName(),
+                    event.customer().lastName(), event.customer().email());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.search-index.rebuild-interval:6h}",
+            initialDelayString = "${customer.search-index.rebuild-interval:6h}")
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            TrigramIndex fresh = new TrigramIndex();
+            load(fresh, Specification.unrestricted());
+            // Rows written while loading are caught by the next delta; the index
+            // goes first so indexedUntil() never vouches for the one being replaced
+            index = fresh;
+            watermark = startedAt;
+            logger.info("Customer search index built: {} customers, {} trigrams, ~{} MB in {} ms",
+                    fresh.documents(), fresh.distinctTrigrams(), fresh.estimatedBytes() / (1024 * 1024),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Customer search index build failed; search falls back to database scans", e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.search-index.refresh-interval:30s}")
+    public void applyDelta() {
+        TrigramIndex current = index;
+        LocalDateTime since = watermark;
+        if (current == null || since == null || building.get()) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        load(current, CustomerSpecification.updatedAfter(since.minus(DELTA_OVERLAP)));
+        watermark = startedAt;
+    }
+
+    private void load(TrigramIndex target, Specification<Customer> specification) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Customer> customers = repo.streamAll(specification, Sort.by("id"), FETCH_SIZE)) {
+                customers.forEach(customer -> target.add(customer.getId(),
+                        customer.getFirstName(), customer.getLastName(), customer.getEmail()));
+            }
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package com.portability.users_service.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from character trigrams to the ids of the documents that
+ * contain them. Posting lists are sorted primitive {@code long[]} arrays, so a
+ * posting costs 8 bytes plus growth slack.
+ *
+ * <p>Lookups return candidates, not matches: a document containing every
+ * trigram of a term doesn't necessarily contain the term, and postings are
+ * never removed when a document changes. Callers must re-check candidates
+ * against the real predicate.
+ */
+public class TrigramIndex {
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long documents;
+
+    /**
+     * Add the trigrams of all given fields to the postings of {@code id}
+     */
+    public void add(long id, String... fields) {
+        long[] trigrams = trigrams(fields);
+        lock.writeLock().lock();
+        try {
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+            }
+            documents++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of documents containing every trigram of {@code term}, or
+     * {@code null} if the term is too short to be served by the index or
+     * matches more than {@code maxCandidates} documents.
+     */
+    public long[] candidates(String term, int maxCandidates) {
+        long[] trigrams = trigrams(term);
+        if (trigrams.length == 0) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                lists[i] = postings.get(trigrams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            // Intersect starting from the rarest trigram to keep the working set small
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int size = result.length;
+            for (int i = 1; i < lists.length && size > 0; i++) {
+                size = intersect(result, size, lists[i]);
+            }
+            return size > maxCandidates ? null : Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long documents() {
+        lock.readLock().lock();
+        try {
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int distinctTrigrams() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the index: posting arrays plus map entries
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Postings list : postings.values()) {
+                // array header + slots, Postings object, boxed key, map node
+                bytes += 16 + 8L * list.ids.length + 24 + 16 + 32;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keep the ids in {@code result[0..size)} that are also in {@code other}.
+     * Both are sorted; returns the new size.
+     */
+    private static int intersect(long[] result, int size, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            long id = result[i];
+            j = gallop(other.ids, j, other.size, id);
+            if (j < other.size && other.ids[j] == id) {
+                result[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * First index in {@code ids[from..to)} whose value is {@code >= target}
+     */
+    private static int gallop(long[] ids, int from, int to, long target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && ids[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(ids, low, Math.min(high, to), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Distinct trigrams of the lowercased fields, each packed as three 16-bit chars
+     */
+    static long[] trigrams(String... fields) {
+        long[] result = new long[16];
+        int size = 0;
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            String value = field.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                long trigram = ((long) value.charAt(i) << 32)
+                        | ((long) value.charAt(i + 1) << 16)
+                        | value.charAt(i + 2);
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = trigram;
+            }
+        }
+        long[] sorted = Arrays.copyOf(result, size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * Sorted, duplicate-free growable list of ids
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                // Out-of-order ids only come from deltas of older rows
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            ids[size++] = id;
+        }
+
+        private void insertAt(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
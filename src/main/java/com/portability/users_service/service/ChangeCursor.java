@@ -0,0 +1,32 @@
+package com.portability.users_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque change-feed watermark: the {@code (updatedAt, id)} of the last
+ * change a client has seen.
+ */
+record ChangeCursor(LocalDateTime updatedAt, long id) {
+
+    private static final String VERSION = "c1";
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = String.join(SEPARATOR, VERSION, updatedAt.toString(), String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    static ChangeCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|");
+        if (parts.length != 3 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Unsupported cursor");
+        }
+        return new ChangeCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+    }
+}
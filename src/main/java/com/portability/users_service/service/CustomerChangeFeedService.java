@@ -0,0 +1,129 @@
+package com.portability.users_service.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.portability.users_service.model.dto.CustomerChange;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.repo.CustomerRepo;
+
+import jakarta.annotation.PostConstruct;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams customers changed after a client's watermark as NDJSON, one
+ * {@link CustomerChange} per line, ordered by {@code (updatedAt, id)}. Each
+ * line carries the cursor to resume from, so a replica syncs by repeating
+ * the call with the last cursor it processed until fewer than {@code limit}
+ * lines come back.
+ *
+ * <p>Rows updated within the last {@code settle-lag} are held back: a
+ * transaction can commit after one that stamped a later {@code updatedAt},
+ * and serving the newer row first would move the client's watermark past
+ * the older one for good. {@code updatedAt} is stamped from the writing
+ * instance's clock before its transaction commits, so the lag has to cover
+ * the longest write ({@code write-timeout}) plus the largest clock
+ * difference between instances ({@code max-clock-skew}); startup fails if
+ * it doesn't.
+ */
+@Service
+public class CustomerChangeFeedService {
+
+    @Autowired
+    private CustomerRepo repo;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${customer.change-feed.settle-lag:5s}")
+    private Duration settleLag;
+
+    @Value("${customer.change-feed.write-timeout:2s}")
+    private Duration writeTimeout;
+
+    @Value("${customer.change-feed.max-clock-skew:1s}")
+    private Duration maxClockSkew;
+
+    @Value("${customer.change-feed.max-limit:100000}")
+    private int maxLimit;
+
+    @Value("${customer.change-feed.fetch-size:1000}")
+    private int fetchSize;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CustomerChangeFeedService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void checkSettleLag() {
+        if (settleLag.compareTo(writeTimeout.plus(maxClockSkew)) <= 0) {
+            throw new IllegalStateException("customer.change-feed.settle-lag (" + settleLag
+                    + ") must exceed write-timeout (" + writeTimeout + ") plus max-clock-skew (" + maxClockSkew + ")");
+        }
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamChanges(String cursor, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + maxLimit);
+        }
+        ChangeCursor after = decodeCursor(cursor);
+        LocalDateTime until = LocalDateTime.now().minus(settleLag);
+
+        StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(
+                status -> writeChanges(after, until, limit, out));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeChanges(ChangeCursor after, LocalDateTime until, int limit, OutputStream out) {
+        try (Stream<CustomerResponse> changes = repo.streamChanges(
+                after == null ? null : after.updatedAt(), after == null ? 0 : after.id(), until, limit, fetchSize)) {
+
+            // The stream is flushed but not closed: the servlet container owns it
+            changes.forEach(customer -> {
+                String token = new ChangeCursor(customer.updatedAt(), customer.id()).encode();
+                try {
+                    out.write(jsonMapper.writeValueAsBytes(new CustomerChange(token, customer)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ChangeCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return ChangeCursor.decode(cursor);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.portability.users_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.enm.CustomerSortField;
+
+/**
+ * Opaque continuation token for keyset pagination. It records the sort used
+ * and the {@code (sortKey, id)} of the last row returned, so the next page can
+ * seek past it instead of skipping an offset.
+ */
+record CustomerCursor(CustomerSortField sortField, Sort.Direction direction, long lastId, Object lastValue) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Cursor continuing after {@code last}, the final row of a page
+     */
+    static CustomerCursor after(CustomerSortField sortField, Sort.Direction direction, CustomerResponse last) {
+        return new CustomerCursor(sortField, direction, last.id(), sortField.valueOf(last));
+    }
+
+    KeysetScrollPosition toScrollPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (sortField != CustomerSortField.ID) {
+            keys.put(sortField.getAttribute(), lastValue);
+        }
+        keys.put(CustomerSortField.ID.getAttribute(), lastId);
+        return ScrollPosition.forward(keys);
+    }
+
+    String encode() {
+        String value = sortField == CustomerSortField.ID ? "" : String.valueOf(lastValue);
+        String raw = String.join(SEPARATOR, VERSION, sortField.name(), direction.name(),
+                String.valueOf(lastId), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    static CustomerCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        // The sort value goes last and may itself contain the separator
+        String[] parts = raw.split("\\|", 5);
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Unsupported cursor");
+        }
+        CustomerSortField sortField = CustomerSortField.valueOf(parts[1]);
+        Sort.Direction direction = Sort.Direction.valueOf(parts[2]);
+        long lastId = Long.parseLong(parts[3]);
+        Object lastValue;
+        try {
+            lastValue = sortField == CustomerSortField.ID ? lastId : sortField.parse(parts[4]);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unsupported cursor value", e);
+        }
+        return new CustomerCursor(sortField, direction, lastId, lastValue);
+    }
+}
@@ -0,0 +1,151 @@
+package com.portability.users_service.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.opencsv.CSVWriter;
+import com.portability.users_service.config.ReadWriteRoutingDataSource;
+import com.portability.users_service.model.dto.CustomerCsvRow;
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.enm.CustomerSortField;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.repo.CustomerSpecification;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes filtered customers as CSV or NDJSON straight to the response while
+ * reading them from a database cursor, so an export of any size is a single
+ * request with bounded heap use.
+ */
+@Service
+public class CustomerExportService {
+
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final String[] HEADER = {
+        "id", "firstName", "lastName", "email", "phoneNumber", "createdAt", "updatedAt"
+    };
+
+    @Autowired
+    private CustomerRepo repo;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${customer.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CustomerExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportCsv(CustomerFilterRequest filter) {
+        CustomerFilterRequest criteria = filter == null ? new CustomerFilterRequest() : filter;
+        // Reports tolerate replication lag; with a replica configured they are served by it
+        StreamingResponseBody body = out -> ReadWriteRoutingDataSource.readFromReplica(
+                () -> {
+                    readOnlyTransaction.executeWithoutResult(status -> writeCsv(criteria, out));
+                    return null;
+                });
+
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("customers.csv").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Every customer matching the filter as one JSON object per line, in
+     * {@code sortBy} order with id as tie-breaker. Writes block while the
+     * client is behind, which holds the cursor where it is; the first line is
+     * flushed on its own so the client sees data after one fetch.
+     */
+    public ResponseEntity<StreamingResponseBody> streamNdjson(CustomerFilterRequest filter,
+            String sortBy, Sort.Direction direction) {
+        CustomerFilterRequest criteria = filter == null ? new CustomerFilterRequest() : filter;
+        CustomerSortField sortField = CustomerSortField.fromAttribute(sortBy)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unsupported sort field: " + sortBy));
+        Sort order = sortField.sort(direction);
+        StreamingResponseBody body = out -> ReadWriteRoutingDataSource.readFromReplica(
+                () -> {
+                    readOnlyTransaction.executeWithoutResult(status -> writeNdjson(criteria, order, out));
+                    return null;
+                });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeNdjson(CustomerFilterRequest filter, Sort sort, OutputStream out) {
+        try (Stream<CustomerResponse> customers = repo.streamResponses(
+                CustomerSpecification.filterBy(filter), sort, fetchSize)) {
+
+            // The stream is flushed but not closed: the servlet container owns it
+            boolean first = true;
+            for (CustomerResponse customer : (Iterable<CustomerResponse>) customers::iterator) {
+                out.write(jsonMapper.writeValueAsBytes(customer));
+                out.write('\n');
+                if (first) {
+                    out.flush();
+                    first = false;
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(CustomerFilterRequest filter, OutputStream out) {
+        // The writer is flushed but not closed: the servlet container owns the response stream
+        CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        try (Stream<CustomerCsvRow> rows = repo.streamCsvRows(
+                CustomerSpecification.filterBy(filter), Sort.by("id"), fetchSize)) {
+
+            writer.writeNext(HEADER, false);
+            rows.forEach(row -> writer.writeNext(toFields(row), false));
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] toFields(CustomerCsvRow row) {
+        return new String[] {
+            String.valueOf(row.id()),
+            row.firstName(),
+            row.lastName(),
+            row.email(),
+            row.phoneNumber(),
+            row.createdAt() == null ? null : row.createdAt().toString(),
+            row.updatedAt() == null ? null : row.updatedAt().toString()
+        };
+    }
+}
@@ -0,0 +1,252 @@
+package com.portability.users_service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerImportRejection;
+import com.portability.users_service.model.dto.CustomerImportResult;
+import com.portability.users_service.phone.PhoneNumberNormalizer;
+import com.portability.users_service.repo.CustomerRepo;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Streams a customer CSV into the database in JDBC batches. Only one batch of
+ * rows is held in memory at a time; each batch is inserted in its own
+ * transaction so a bad row never rolls back rows already imported.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("firstName", "lastName", "email");
+
+    @Autowired
+    private CustomerRepo repo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PhoneNumberNormalizer phoneNumberNormalizer;
+
+    @Value("${customer.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${customer.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    public ResponseEntity<CustomerImportResult> importCsv(InputStream csv) throws IOException {
+        long startNanos = System.nanoTime();
+        ImportProgress progress = new ImportProgress(maxReportedRejections);
+
+        try (Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
+                CSVReader csvReader = new CSVReader(reader)) {
+
+            Map<String, Integer> columns = readHeader(csvReader.readNext());
+            if (columns == null) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            String[] fields;
+            while ((fields = csvReader.readNext()) != null) {
+                long line = csvReader.getLinesRead();
+                progress.totalRows++;
+
+                Customer customer = toCustomer(fields, columns);
+                String reason = validate(customer);
+                if (reason != null) {
+                    progress.reject(line, customer.getEmail(), reason);
+                    continue;
+                }
+
+                batch.add(new PendingRow(line, customer));
+                if (batch.size() >= batchSize) {
+                    insertBatch(batch, progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(batch, progress);
+            }
+        } catch (CsvValidationException e) {
+            logger.warn("Customer import aborted: malformed CSV after {} rows: {}", progress.totalRows, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        long durationNanos = System.nanoTime() - startNanos;
+        CustomerImportResult result = progress.toResult(durationNanos);
+        logger.info("Customer import finished: {} rows, {} imported, {} rejected in {} ms ({} rows/s)",
+                result.totalRows(), result.imported(), result.rejected(), result.durationMs(),
+                Math.round(result.rowsPerSecond()));
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    private Map<String, Integer> readHeader(String[] header) {
+        if (header == null) {
+            return null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].trim().toLowerCase(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase())) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    private Customer toCustomer(String[] fields, Map<String, Integer> columns) {
+        Customer customer = new Customer();
+        customer.setFirstName(field(fields, columns, "firstname"));
+        customer.setLastName(field(fields, columns, "lastname"));
+        customer.setEmail(field(fields, columns, "email"));
+        customer.setPhoneNumber(field(fields, columns, "phonenumber"));
+        long phoneKey = phoneNumberNormalizer.toKey(customer.getPhoneNumber());
+        customer.setPhoneKey(phoneKey == PhoneNumberNormalizer.NO_KEY ? null : phoneKey);
+        return customer;
+    }
+
+    private String field(String[] fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private String validate(Customer customer) {
+        if (customer.getFirstName() == null || customer.getFirstName().length() > 50) {
+            return "First name is required and must be at most 50 characters";
+        }
+        if (customer.getLastName() == null || customer.getLastName().length() > 50) {
+            return "Last name is required and must be at most 50 characters";
+        }
+        if (customer.getEmail() != null && customer.getEmail().length() > 50) {
+            return "Email must be at most 50 characters";
+        }
+        if (customer.getPhoneNumber() != null && customer.getPhoneNumber().length() > 20) {
+            return "Phone number must be at most 20 characters";
+        }
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    /**
+     * Drop rows whose email repeats inside the batch or already exists, then
+     * insert the rest in one transaction. If a concurrent writer takes one of
+     * the emails in the meantime, the batch is retried row by row so only the
+     * conflicting rows are rejected.
+     */
+    private void insertBatch(List<PendingRow> batch, ImportProgress progress) {
+        Map<String, PendingRow> byEmail = new LinkedHashMap<>();
+        for (PendingRow row : batch) {
+            if (byEmail.putIfAbsent(row.customer().getEmail(), row) != null) {
+                progress.reject(row.line(), row.customer().getEmail(), "Duplicate email in file");
+            }
+        }
+
+        Set<String> existing = new HashSet<>(repo.findExistingEmails(byEmail.keySet()));
+        List<PendingRow> toInsert = new ArrayList<>(byEmail.size());
+        for (PendingRow row : byEmail.values()) {
+            if (existing.contains(row.customer().getEmail())) {
+                progress.reject(row.line(), row.customer().getEmail(), "Email already registered");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repo.saveAll(toInsert.stream().map(PendingRow::customer).toList()));
+            progress.imported += toInsert.size();
+            toInsert.forEach(row -> publishImported(row.customer()));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch insert of {} customers conflicted, retrying row by row", toInsert.size());
+            for (PendingRow row : toInsert) {
+                row.customer().setId(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> repo.save(row.customer()));
+                    progress.imported++;
+                    publishImported(row.customer());
+                } catch (DataIntegrityViolationException rowError) {
+                    progress.reject(row.line(), row.customer().getEmail(), "Email already registered");
+                }
+            }
+        }
+    }
+
+    private void publishImported(Customer customer) {
+        eventPublisher.publishEvent(new CustomerChangedEvent(CustomerService.mapToResponse(customer)));
+    }
+
+    private record PendingRow(long line, Customer customer) {}
+
+    private static class ImportProgress {
+
+        private final int maxReportedRejections;
+        private final List<CustomerImportRejection> rejections = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long rejected;
+
+        ImportProgress(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+
+        void reject(long line, String email, String reason) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new CustomerImportRejection(line, email, reason));
+            }
+        }
+
+        CustomerImportResult toResult(long durationNanos) {
+            double seconds = durationNanos / 1_000_000_000.0;
+            double rowsPerSecond = seconds > 0 ? totalRows / seconds : 0;
+            return new CustomerImportResult(totalRows, imported, rejected,
+                    durationNanos / 1_000_000, rowsPerSecond, rejections, rejected > rejections.size());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.portability.users_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portability.users_service.bloom.CustomerExistenceFilter;
+import com.portability.users_service.cache.CustomerCache;
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group commit for registrations: concurrent requests are queued and
+ * written by a few flusher threads, each taking whatever arrived within
+ * {@code max-wait} (up to {@code max-batch-size}) and inserting it with one
+ * duplicate check and one batched insert in a single transaction. Every
+ * caller gets its own outcome back through a future.
+ */
+@Component
+public class CustomerRegistrationBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerRegistrationBatcher.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final CustomerRepo repo;
+    private final CustomerCache cache;
+    private final CustomerExistenceFilter existenceFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<Pending> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+
+    @Value("${customer.registration.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${customer.registration.max-wait:2ms}")
+    private Duration maxWait;
+
+    @Value("${customer.registration.flushers:2}")
+    private int flusherCount;
+
+    private volatile boolean running;
+
+    public CustomerRegistrationBatcher(CustomerRepo repo, CustomerCache cache,
+            ObjectProvider<CustomerExistenceFilter> existenceFilter, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${customer.registration.queue-capacity:10000}") int queueCapacity) {
+        this.repo = repo;
+        this.cache = cache;
+        this.existenceFilter = existenceFilter.getIfAvailable();
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("customer.registration.batch.size")
+                .description("Registrations written per transaction")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < flusherCount; i++) {
+            flushers.add(Thread.ofPlatform().daemon().name("customer-registration-" + i).start(this::flushLoop));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // Anything still queued is written by the caller's thread
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Queue a new customer for insertion. When the queue is full (or the
+     * batcher is stopping) the customer is written on the caller's thread.
+     */
+    public CompletableFuture<Registration> register(Customer customer) {
+        Pending pending = new Pending(customer, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            flush(List.of(pending));
+        }
+        return pending.result();
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                // Bounded wait so the loop notices shutdown without being interrupted mid-insert
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            insert(batch);
+        } catch (Throwable e) {
+            // Whatever went wrong, no caller may be left waiting on its future
+            logger.error("Registration batch of {} failed", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Resolve duplicates inside the batch and against the table, insert the
+     * rest in one transaction, and if a concurrent writer took one of the
+     * emails in the meantime retry row by row so only that row conflicts.
+     */
+    private void insert(List<Pending> batch) {
+        batchSizes.record(batch.size());
+
+        Map<String, Pending> byEmail = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            if (byEmail.putIfAbsent(pending.customer().getEmail(), pending) != null) {
+                pending.result().complete(Registration.conflict());
+            }
+        }
+
+        // Only emails the existence filter can't rule out need the query
+        List<String> candidates = byEmail.keySet().stream()
+                .filter(email -> existenceFilter == null || existenceFilter.mightContainEmail(email))
+                .toList();
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(repo.findExistingEmails(candidates));
+        List<Pending> toInsert = new ArrayList<>(byEmail.size());
+        for (Pending pending : byEmail.values()) {
+            if (existing.contains(pending.customer().getEmail())) {
+                pending.result().complete(Registration.conflict());
+            } else {
+                toInsert.add(pending);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repo.saveAll(toInsert.stream().map(Pending::customer).toList()));
+            toInsert.forEach(this::created);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Registration batch of {} conflicted, retrying row by row", toInsert.size());
+            for (Pending pending : toInsert) {
+                pending.customer().setId(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> repo.save(pending.customer()));
+                    created(pending);
+                } catch (DataIntegrityViolationException rowError) {
+                    // Only a taken email is a conflict; any other violation is a real failure
+                    if (repo.findExistingEmails(List.of(pending.customer().getEmail())).isEmpty()) {
+                        logger.error("Registration of {} failed", pending.customer().getEmail(), rowError);
+                        pending.result().completeExceptionally(rowError);
+                    } else {
+                        pending.result().complete(Registration.conflict());
+                    }
+                }
+            }
+        }
+    }
+
+    private void created(Pending pending) {
+        CustomerResponse customerResponse = CustomerService.mapToResponse(pending.customer());
+        cache.put(customerResponse);
+        eventPublisher.publishEvent(new CustomerChangedEvent(customerResponse));
+        pending.result().complete(Registration.created(customerResponse));
+    }
+
+    /**
+     * Outcome of one registration: the saved customer, or a conflict when
+     * the email is already registered
+     */
+    public record Registration(CustomerResponse customer) {
+
+        static Registration created(CustomerResponse customer) {
+            return new Registration(customer);
+        }
+
+        static Registration conflict() {
+            return new Registration(null);
+        }
+
+        public boolean isConflict() {
+            return customer == null;
+        }
+    }
+
+    private record Pending(Customer customer, CompletableFuture<Registration> result) {}
+}
@@ -1,22 +1,60 @@
 package com.portability.users_service.service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.portability.users_service.bloom.CustomerExistenceFilter;
+import com.portability.users_service.cache.CustomerCache;
+import com.portability.users_service.cache.CustomerCountCache;
+import com.portability.users_service.cache.CustomerFilterKey;
+import com.portability.users_service.cache.CustomerFilterResultCache;
+import com.portability.users_service.config.ReplicaRead;
+import com.portability.users_service.config.ReplicaStickiness;
 import com.portability.users_service.model.Customer;
+import com.portability.users_service.model.dto.BatchLookupResponse;
 import com.portability.users_service.model.dto.CustomerFilterRequest;
 import com.portability.users_service.model.dto.CustomerRequest;
 import com.portability.users_service.model.dto.CustomerResponse;
 import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+import com.portability.users_service.model.enm.CustomerSortField;
+import com.portability.users_service.phone.CustomerPhoneLookup;
+import com.portability.users_service.phone.PhoneNumberNormalizer;
 import com.portability.users_service.repo.CustomerRepo;
 import com.portability.users_service.repo.CustomerSpecification;
+import com.portability.users_service.search.CustomerSearchIndex;
+import com.portability.users_service.service.CustomerRegistrationBatcher.Registration;
 
 @Service
 public class CustomerService {
@@ -24,82 +62,210 @@ public class CustomerService {
     @Autowired
     private CustomerRepo repo;
 
+    @Autowired
+    private CustomerCache cache;
+
+    @Autowired
+    private CustomerCountCache countCache;
+
+    @Autowired
+    private CustomerFilterResultCache filterResultCache;
+
+    @Autowired(required = false)
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired(required = false)
+    private CustomerExistenceFilter existenceFilter;
+
+    @Autowired
+    private CustomerPhoneLookup phoneLookup;
+
+    @Autowired
+    private PhoneNumberNormalizer phoneNumberNormalizer;
+
+    @Autowired
+    private CustomerRegistrationBatcher registrationBatcher;
+
+    @Autowired(required = false)
+    private ReplicaStickiness replicaStickiness;
+
+    @Value("${customer.batch.max-keys:1000}")
+    private int maxBatchKeys;
+
+    @Value("${customer.registration.timeout:5s}")
+    private Duration registrationTimeout;
+
+    /**
+     * Registrations are handed to the batcher, which writes concurrent
+     * requests together in one transaction
+     */
     public ResponseEntity<CustomerResponse> registerCustomer(
             CustomerRequest customerRequest) {
 
-        Customer customer = repo.findByEmail(customerRequest.email());
-
-        // if (!(customer == null)) {
-        //     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        // }
-        customer = new Customer();
+        Customer customer = new Customer();
         customer.setFirstName(customerRequest.firstName());
         customer.setLastName(customerRequest.lastName());
         customer.setEmail(customerRequest.email());
         customer.setPhoneNumber(customerRequest.phoneNumber());
-        Customer savedCustomer = repo.save(customer);
+        customer.setPhoneKey(phoneKeyOf(customerRequest.phoneNumber()));
 
-        return new ResponseEntity<>(mapToResponse(savedCustomer), HttpStatus.CREATED);
+        Registration registration;
+        try {
+            registration = registrationBatcher.register(customer)
+                    .orTimeout(registrationTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // The insert may still land; a retry then gets 409
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Registration timed out");
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        if (registration.isConflict()) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        // The insert ran on a batcher thread, so the routing data source didn't see this client write
+        if (replicaStickiness != null) {
+            replicaStickiness.recordWrite();
+        }
+        return new ResponseEntity<>(registration.customer(), HttpStatus.CREATED);
     }
 
+    /**
+     * The cached entry carries {@code updatedAt}, so the ETag and
+     * Last-Modified headers come from the same snapshot as the body. Spring MVC
+     * answers a matching {@code If-None-Match} / {@code If-Modified-Since}
+     * with 304 and skips writing the body.
+     */
     public ResponseEntity<CustomerResponse> getCustomerById(Long id) {
-        Customer customer = repo.findById(id)
-                .orElse(null);
+        CustomerResponse customerResponse = cache.getById(id);
 
-        if (customer == null) {
+        if (customerResponse == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        if (customerResponse.updatedAt() == null) {
+            return new ResponseEntity<>(customerResponse, HttpStatus.OK);
+        }
 
-        CustomerResponse customerResponse = mapToResponse(customer);
+        // JSON and CBOR share the (weak) validator, so shared caches must key on Accept too
+        return ResponseEntity.ok()
+                .eTag(etagOf(customerResponse))
+                .varyBy(HttpHeaders.ACCEPT)
+                .lastModified(customerResponse.updatedAt().atZone(ZoneId.systemDefault()))
+                .body(customerResponse);
+    }
 
-        return new ResponseEntity<>(customerResponse, HttpStatus.OK);
+    /**
+     * Weak validator: id plus {@code updatedAt} in microseconds, the
+     * precision the column keeps. Weak because the JSON and CBOR bodies of
+     * one version are equivalent but not byte-identical.
+     */
+    static String etagOf(CustomerResponse customer) {
+        Instant updatedAt = customer.updatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        long micros = updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "W/\"" + customer.id() + "-" + Long.toHexString(micros) + "\"";
     }
 
     public ResponseEntity<CustomerResponse> getCustomerByEmail(String email) {
-        Customer customer = repo.findByEmail(email);
-
-        if (customer == null) {
+        if (!mightExistEmail(email)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        CustomerResponse customerResponse = cache.getByEmail(email);
 
-        CustomerResponse customerResponse = mapToResponse(customer);
+        if (customerResponse == null) {
+            if (existenceFilter != null) {
+                existenceFilter.recordEmailFalsePositive();
+            }
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
 
         return new ResponseEntity<>(customerResponse, HttpStatus.OK);
     }
 
     public ResponseEntity<CustomerResponse> getCustomerByPhoneNumber(String phoneNumber) {
-        Customer customer = repo.findByPhoneNumber(phoneNumber);
+        CustomerResponse customerResponse = phoneLookup.find(phoneNumber);
 
-        if (customer == null) {
+        if (customerResponse == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        CustomerResponse customerResponse = mapToResponse(customer);
-
         return new ResponseEntity<>(customerResponse, HttpStatus.OK);
     }
 
+    public ResponseEntity<BatchLookupResponse<Long>> getCustomersByIds(List<Long> ids) {
+        return new ResponseEntity<>(batchLookup(ids, cache::getAllById), HttpStatus.OK);
+    }
+
+    public ResponseEntity<BatchLookupResponse<String>> getCustomersByEmails(List<String> emails) {
+        return new ResponseEntity<>(batchLookup(emails,
+                candidates -> cache.getAllByEmail(candidates.stream().filter(this::mightExistEmail).toList())), HttpStatus.OK);
+    }
+
+    public ResponseEntity<BatchLookupResponse<String>> getCustomersByPhoneNumbers(List<String> phoneNumbers) {
+        return new ResponseEntity<>(batchLookup(phoneNumbers, phoneLookup::findAll), HttpStatus.OK);
+    }
+
+    /**
+     * Resolve distinct keys through the cache, which loads all misses with
+     * chunked IN queries, and report every key that has no customer.
+     */
+    private <K> BatchLookupResponse<K> batchLookup(
+            List<K> keys, Function<Collection<K>, Map<K, CustomerResponse>> lookup) {
+        if (keys.size() > maxBatchKeys) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchKeys + " keys can be looked up at once");
+        }
+
+        Set<K> distinctKeys = new LinkedHashSet<>(keys);
+        Map<K, CustomerResponse> loaded = lookup.apply(distinctKeys);
+
+        Map<K, CustomerResponse> found = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : distinctKeys) {
+            CustomerResponse customer = loaded.get(key);
+            if (customer == null) {
+                missing.add(key);
+            } else {
+                found.put(key, customer);
+            }
+        }
+        return new BatchLookupResponse<>(found, missing);
+    }
+
     public PagedResponse<CustomerResponse> getCustomers(
             CustomerFilterRequest filter, Pageable pageable) {
+        return getCustomers(filter, pageable, CountStrategy.EXACT);
+    }
 
-        Page<Customer> customerPage;
+    /**
+     * Identical concurrent requests share one query through the filter result
+     * cache. No transaction is open while waiting on it; the page and its
+     * count run in one read-only transaction inside the repository.
+     */
+    @ReplicaRead
+    public PagedResponse<CustomerResponse> getCustomers(
+            CustomerFilterRequest filter, Pageable pageable, CountStrategy countStrategy) {
 
-        if (filter == null || isFilterEmpty(filter)) {
-            customerPage = repo.findAll(pageable);
-        } else {
-            customerPage = repo.findAll(CustomerSpecification.filterBy(filter), pageable);
-        }
+        Pageable indexedPageable = withIndexedSort(pageable);
+        return filterResultCache.get(filter, indexedPageable, countStrategy,
+                () -> countStrategy == CountStrategy.EXACT
+                        ? getCustomersWithCount(filter, indexedPageable)
+                        : getCustomersWithoutCount(filter, indexedPageable, countStrategy));
+    }
+
+    private PagedResponse<CustomerResponse> getCustomersWithCount(
+            CustomerFilterRequest filter, Pageable pageable) {
 
-        List<CustomerResponse> customersResponses = customerPage.getContent().stream()
-                .map(customer -> mapToResponse(customer))
-                .collect(Collectors.toList());
+        Page<CustomerResponse> customerPage = repo.findResponses(specificationFor(filter), pageable);
 
         return PagedResponse.<CustomerResponse>builder()
-                .content(customersResponses)
+                .content(customerPage.getContent())
                 .page(customerPage.getNumber())
                 .size(customerPage.getSize())
                 .totalElements(customerPage.getTotalElements())
                 .totalPages(customerPage.getTotalPages())
+                .totalStrategy(CountStrategy.EXACT)
                 .last(customerPage.isLast())
                 .first(customerPage.isFirst())
                 .numberOfElements(customerPage.getNumberOfElements())
@@ -107,6 +273,160 @@ public class CustomerService {
                 .build();
     }
 
+    /**
+     * Fetch the page as a slice (one extra row tells whether a next page
+     * exists) and either leave the total out or fill it with an estimate.
+     */
+    private PagedResponse<CustomerResponse> getCustomersWithoutCount(
+            CustomerFilterRequest filter, Pageable pageable, CountStrategy countStrategy) {
+
+        Specification<Customer> specification = specificationFor(filter);
+        Slice<CustomerResponse> customerSlice = repo.findResponseSlice(specification, pageable);
+
+        long totalElements = -1;
+        int totalPages = -1;
+        if (countStrategy == CountStrategy.ESTIMATED) {
+            totalElements = estimateTotal(filter, specification);
+            // The estimate may lag behind what this page already proves exists
+            long seen = pageable.getOffset() + customerSlice.getNumberOfElements();
+            totalElements = Math.max(totalElements, customerSlice.hasNext() ? seen + 1 : seen);
+            totalPages = (int) Math.ceil((double) totalElements / pageable.getPageSize());
+        }
+
+        return PagedResponse.<CustomerResponse>builder()
+                .content(customerSlice.getContent())
+                .page(customerSlice.getNumber())
+                .size(customerSlice.getSize())
+                .totalElements(totalElements)
+                .totalPages(totalPages)
+                .totalStrategy(countStrategy)
+                .last(!customerSlice.hasNext())
+                .first(customerSlice.isFirst())
+                .numberOfElements(customerSlice.getNumberOfElements())
+                .empty(customerSlice.isEmpty())
+                .build();
+    }
+
+    private long estimateTotal(CustomerFilterRequest filter, Specification<Customer> specification) {
+        if (filter == null || isFilterEmpty(filter)) {
+            long estimate = repo.estimateCount();
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+        return countCache.get(CustomerFilterKey.of(filter), () -> repo.count(specification));
+    }
+
+    /**
+     * Keyset (seek) pagination: each page continues after the last row of the
+     * previous one, so its cost doesn't depend on how deep the caller is.
+     * When a cursor is given, its sort overrides {@code sortBy} and {@code direction}.
+     */
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public PagedResponse<CustomerResponse> getCustomersByCursor(
+            CustomerFilterRequest filter, String sortBy, Sort.Direction direction, int size, String cursor) {
+
+        CustomerSortField sortField;
+        KeysetScrollPosition position;
+        if (cursor == null || cursor.isBlank()) {
+            sortField = CustomerSortField.fromAttribute(sortBy)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Unsupported sort field for cursor pagination: " + sortBy));
+            position = ScrollPosition.keyset();
+        } else {
+            CustomerCursor previous = decodeCursor(cursor);
+            sortField = previous.sortField();
+            direction = previous.direction();
+            position = previous.toScrollPosition();
+        }
+
+        Slice<CustomerResponse> window = repo.findResponsesAfter(specificationFor(filter),
+                sortField.sort(direction), position, size);
+        List<CustomerResponse> customersResponses = window.getContent();
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            CustomerResponse last = customersResponses.get(customersResponses.size() - 1);
+            nextCursor = CustomerCursor.after(sortField, direction, last).encode();
+        }
+
+        return PagedResponse.<CustomerResponse>builder()
+                .content(customersResponses)
+                .page(0)
+                .size(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .totalStrategy(CountStrategy.NONE)
+                .last(nextCursor == null)
+                .first(cursor == null || cursor.isBlank())
+                .numberOfElements(customersResponses.size())
+                .empty(customersResponses.isEmpty())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * The page request sorted by its first order's {@link CustomerSortField}
+     * with id as tie-breaker; any other sort property is refused
+     */
+    private Pageable withIndexedSort(Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        Sort.Order order = pageable.getSort().iterator().next();
+        CustomerSortField sortField = CustomerSortField.fromAttribute(order.getProperty())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unsupported sort field: " + order.getProperty()));
+        Sort sort = sortField.sort(order.getDirection());
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    private CustomerCursor decodeCursor(String cursor) {
+        try {
+            return CustomerCursor.decode(cursor);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Specification for the filter. When the search index can narrow a
+     * {@code search} term to a set of candidate ids, the query is restricted
+     * to those ids so the LIKE predicates only re-check a handful of rows.
+     */
+    private Specification<Customer> specificationFor(CustomerFilterRequest filter) {
+        if (filter == null || isFilterEmpty(filter)) {
+            return Specification.unrestricted();
+        }
+        Specification<Customer> specification = CustomerSpecification.filterBy(filter);
+
+        if (searchIndex != null) {
+            LocalDateTime indexedUntil = searchIndex.indexedUntil();
+            long[] candidates = searchIndex.candidates(filter.getSearch());
+            if (candidates != null && indexedUntil != null) {
+                // Rows the index may not have seen yet are matched by the filter itself
+                specification = specification.and(CustomerSpecification.idIn(Arrays.stream(candidates).boxed().toList())
+                        .or(CustomerSpecification.updatedAfter(indexedUntil)));
+            }
+        }
+        return specification;
+    }
+
+    private boolean mightExistEmail(String email) {
+        return existenceFilter == null || existenceFilter.mightContainEmail(email);
+    }
+
+    /**
+     * Normalized phone key to store alongside the phone number, or null
+     */
+    Long phoneKeyOf(String phoneNumber) {
+        long phoneKey = phoneNumberNormalizer.toKey(phoneNumber);
+        return phoneKey == PhoneNumberNormalizer.NO_KEY ? null : phoneKey;
+    }
+
     private boolean isFilterEmpty(CustomerFilterRequest filter) {
         return (filter.getSearch() == null || filter.getSearch().trim().isEmpty())
                 && (filter.getFirstName() == null || filter.getFirstName().trim().isEmpty())
@@ -114,13 +434,14 @@ public class CustomerService {
                 && (filter.getEmail() == null || filter.getEmail().trim().isEmpty());
     }
 
-    private CustomerResponse mapToResponse(Customer customer) {
+    public static CustomerResponse mapToResponse(Customer customer) {
         return new CustomerResponse(
                 customer.getId(),
                 customer.getFirstName(),
                 customer.getLastName(),
                 customer.getEmail(),
-                customer.getPhoneNumber()
+                customer.getPhoneNumber(),
+                customer.getUpdatedAt()
         );
     }
 }
@@ -0,0 +1,51 @@
+package com.portability.users_service.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.portability.users_service.config.PortabilityDispatchProperties;
+import com.portability.users_service.model.dto.CreatePortabilityRequest;
+import com.portability.users_service.model.dto.PortabilitySubmissionResponse;
+import com.portability.users_service.portability.PortabilityDispatcher;
+
+@Service
+public class PortabilityService {
+
+    @Autowired
+    private PortabilityDispatcher dispatcher;
+
+    @Autowired
+    private PortabilityDispatchProperties properties;
+
+    /**
+     * Requests are sent downstream asynchronously, so acceptance is 202.
+     * A full queue answers 429 and a stopping instance 503, both with
+     * Retry-After, and nothing from the call is queued.
+     */
+    public ResponseEntity<PortabilitySubmissionResponse> submitPortabilities(
+            List<CreatePortabilityRequest> requests) {
+        if (requests.size() > properties.getQueueCapacity()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + properties.getQueueCapacity() + " requests per call");
+        }
+        HttpStatus status = switch (dispatcher.submit(requests)) {
+            case ACCEPTED -> HttpStatus.ACCEPTED;
+            case QUEUE_FULL -> HttpStatus.TOO_MANY_REQUESTS;
+            case STOPPED -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+        if (status != HttpStatus.ACCEPTED) {
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())))
+                    .build();
+        }
+        return ResponseEntity.status(status)
+                .body(new PortabilitySubmissionResponse(requests.size(), dispatcher.getQueueDepth()));
+    }
+}
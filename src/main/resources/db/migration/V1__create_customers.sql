@@ -0,0 +1,11 @@
+-- Schema as previously generated by Hibernate (ddl-auto). Existing databases
+-- are baselined at this version and skip it.
+CREATE TABLE IF NOT EXISTS customers (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name   VARCHAR(50) NOT NULL,
+    last_name    VARCHAR(50) NOT NULL,
+    email        VARCHAR(50) NOT NULL UNIQUE,
+    phone_number VARCHAR(20),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
@@ -0,0 +1,6 @@
+-- Pooled sequence for customer ids so Hibernate can batch inserts
+-- (IDENTITY forces one round trip per row). INCREMENT must match
+-- allocationSize on User.id.
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+
+SELECT setval('customers_seq', COALESCE((SELECT MAX(id) FROM customers), 0) + 50);
@@ -0,0 +1,5 @@
+-- Normalized E.164 phone number as a number, for exact phone lookups.
+-- Existing rows are backfilled by the application when it loads its phone index.
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS phone_key BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_customers_phone_key ON customers (phone_key);
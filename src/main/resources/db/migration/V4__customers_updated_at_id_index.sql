@@ -0,0 +1,2 @@
+-- Seek index for the change feed: rows past a (updated_at, id) watermark in order
+CREATE INDEX IF NOT EXISTS idx_customers_updated_at_id ON customers (updated_at, id);
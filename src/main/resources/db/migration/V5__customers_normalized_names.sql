@@ -0,0 +1,25 @@
+-- Lowercase, trimmed copies of the filterable columns, maintained by the database
+-- so every writer (old instances during a rollout, manual SQL) keeps them in step.
+-- Plain nullable columns only touch the catalog; existing rows are filled by V6
+-- and indexed by V7, neither of which blocks writes.
+-- Give up rather than queue every other session behind the brief table lock.
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE customers
+    ADD COLUMN IF NOT EXISTS first_name_norm VARCHAR(50),
+    ADD COLUMN IF NOT EXISTS last_name_norm  VARCHAR(50),
+    ADD COLUMN IF NOT EXISTS email_norm      VARCHAR(50);
+
+CREATE OR REPLACE FUNCTION customers_normalize_names() RETURNS trigger AS $$
+BEGIN
+    NEW.first_name_norm := lower(trim(NEW.first_name));
+    NEW.last_name_norm := lower(trim(NEW.last_name));
+    NEW.email_norm := lower(trim(NEW.email));
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS customers_normalize_names ON customers;
+CREATE TRIGGER customers_normalize_names
+    BEFORE INSERT OR UPDATE ON customers
+    FOR EACH ROW EXECUTE FUNCTION customers_normalize_names();
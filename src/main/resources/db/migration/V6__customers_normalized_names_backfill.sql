@@ -0,0 +1,22 @@
+-- Fill the *_norm columns of rows written before V5, committing every
+-- 5000 ids so no row stays locked for long. Rows written meanwhile already
+-- have them from the trigger; rerunning after a failure only redoes what's left.
+DO $$
+DECLARE
+    batch_size CONSTANT BIGINT := 5000;
+    batch_start BIGINT;
+    last_id BIGINT;
+BEGIN
+    SELECT MIN(id), MAX(id) INTO batch_start, last_id FROM customers;
+    WHILE batch_start <= last_id LOOP
+        UPDATE customers
+           SET first_name_norm = lower(trim(first_name)),
+               last_name_norm = lower(trim(last_name)),
+               email_norm = lower(trim(email))
+         WHERE id >= batch_start AND id < batch_start + batch_size
+           AND (first_name_norm IS NULL OR last_name_norm IS NULL OR email_norm IS NULL);
+        COMMIT;
+        batch_start := batch_start + batch_size;
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,9 @@
+-- Built without blocking writes. A build that fails leaves an invalid index
+-- behind, so each one is dropped first and a rerun starts clean.
+-- varchar_pattern_ops serves both = and LIKE 'prefix%' whatever the database collation
+DROP INDEX CONCURRENTLY IF EXISTS idx_customers_first_name_norm;
+CREATE INDEX CONCURRENTLY idx_customers_first_name_norm ON customers (first_name_norm varchar_pattern_ops);
+DROP INDEX CONCURRENTLY IF EXISTS idx_customers_last_name_norm;
+CREATE INDEX CONCURRENTLY idx_customers_last_name_norm ON customers (last_name_norm varchar_pattern_ops);
+DROP INDEX CONCURRENTLY IF EXISTS idx_customers_email_norm;
+CREATE INDEX CONCURRENTLY idx_customers_email_norm ON customers (email_norm varchar_pattern_ops);
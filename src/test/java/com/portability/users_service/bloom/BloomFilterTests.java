@@ -0,0 +1,83 @@
+package com.portability.users_service.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTests {
+
+	private static final double FPP = 0.01;
+
+	@Test
+	void concurrentAddsLoseNoItems() throws Exception {
+		int threads = 8;
+		int perThread = 25_000;
+		BloomFilter filter = BloomFilter.create(threads * perThread, FPP);
+
+		ExecutorService writers = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> adds = IntStream.range(0, threads)
+					.<Future<?>>mapToObj(t -> writers.submit(() -> {
+						for (int i = t; i < threads * perThread; i += threads) {
+							filter.put(BloomFilter.hash(email(i)));
+						}
+					}))
+					.toList();
+			for (Future<?> add : adds) {
+				add.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			writers.shutdownNow();
+		}
+
+		assertThat(filter.insertions()).isEqualTo(threads * perThread);
+		for (int i = 0; i < threads * perThread; i++) {
+			assertThat(filter.mightContain(BloomFilter.hash(email(i)))).as(email(i)).isTrue();
+		}
+	}
+
+	@Test
+	void observedFalsePositiveRateIsNearTheConfiguredOne() {
+		int added = 100_000;
+		int probes = 200_000;
+
+		BloomFilter emails = BloomFilter.create(added, FPP);
+		for (int i = 0; i < added; i++) {
+			emails.put(BloomFilter.hash(email(i)));
+		}
+		assertThat(emails.expectedFalsePositiveProbability()).isCloseTo(FPP, within(FPP * 0.2));
+		assertThat(observedRate(emails, probes, i -> BloomFilter.hash(email(added + i))))
+				.isCloseTo(FPP, within(FPP * 0.3));
+
+		// Sequential phone keys are the worst case for a weak hash
+		BloomFilter phones = BloomFilter.create(added, FPP);
+		for (long i = 0; i < added; i++) {
+			phones.put(BloomFilter.hash(525500000000L + i));
+		}
+		assertThat(observedRate(phones, probes, i -> BloomFilter.hash(525500000000L + added + i)))
+				.isCloseTo(FPP, within(FPP * 0.3));
+	}
+
+	private static double observedRate(BloomFilter filter, int probes, LongUnaryOperator absentHash) {
+		long falsePositives = 0;
+		for (long i = 0; i < probes; i++) {
+			if (filter.mightContain(absentHash.applyAsLong(i))) {
+				falsePositives++;
+			}
+		}
+		return (double) falsePositives / probes;
+	}
+
+	private static String email(long i) {
+		return "customer" + i + "@example.com";
+	}
+}
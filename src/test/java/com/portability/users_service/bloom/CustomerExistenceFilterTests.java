@@ -0,0 +1,73 @@
+package com.portability.users_service.bloom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.portability.users_service.event.PeerCustomersChangedEvent;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.phone.PhoneNumberNormalizer;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A customer registered on another instance must not be reported absent
+ * here while the filters haven't loaded it yet.
+ */
+class CustomerExistenceFilterTests {
+
+	private static final String PHONE = "+525512345678";
+
+	private final CustomerRepo repo = mock(CustomerRepo.class);
+	private final PhoneNumberNormalizer normalizer = new PhoneNumberNormalizer("52", 10);
+	private final CustomerExistenceFilter filter = new CustomerExistenceFilter(repo, normalizer,
+			mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+	@BeforeEach
+	void build() {
+		ReflectionTestUtils.setField(filter, "falsePositiveProbability", 0.01);
+		ReflectionTestUtils.setField(filter, "growthHeadroom", 1.5);
+		when(repo.estimateCount()).thenReturn(0L);
+		when(repo.streamAll(any(), any(), anyInt())).thenAnswer(call -> Stream.empty());
+		filter.rebuild();
+	}
+
+	@Test
+	void peerWritesAreNotReportedAbsentBeforeTheNextDelta() {
+		assertThat(filter.mightContainEmail("ana@example.com")).isFalse();
+		assertThat(filter.mightContainPhone(normalizer.toKey(PHONE))).isFalse();
+
+		filter.onPeerCustomersChanged(new PeerCustomersChangedEvent(List.of("ana@example.com")));
+		assertThat(filter.mightContainEmail("ana@example.com")).isTrue();
+		assertThat(filter.mightContainEmail("luis@example.com")).isFalse();
+		assertThat(filter.mightContainPhone(normalizer.toKey(PHONE))).isTrue();
+
+		Customer customer = new Customer();
+		customer.setEmail("ana@example.com");
+		customer.setPhoneNumber(PHONE);
+		when(repo.streamAll(any(), any(), anyInt())).thenAnswer(call -> Stream.of(customer));
+		filter.applyDelta();
+		assertThat(filter.mightContainPhone(normalizer.toKey(PHONE))).isTrue();
+		assertThat(filter.mightContainPhone(normalizer.toKey("+525587654321"))).isFalse();
+	}
+
+	@Test
+	void peerFlushDisablesNegativesUntilTheNextDelta() {
+		filter.onPeerCustomersChanged(new PeerCustomersChangedEvent(null));
+		assertThat(filter.mightContainEmail("ana@example.com")).isTrue();
+
+		filter.applyDelta();
+		assertThat(filter.mightContainEmail("ana@example.com")).isFalse();
+	}
+}
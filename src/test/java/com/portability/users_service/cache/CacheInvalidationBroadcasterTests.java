@@ -0,0 +1,159 @@
+package com.portability.users_service.cache;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Three in-process instances wired through a stubbed registry and an
+ * in-memory transport that can drop messages to a given peer.
+ */
+class CacheInvalidationBroadcasterTests {
+
+	private static final String SERVICE_ID = "users-service";
+
+	private final Map<String, Node> nodes = new LinkedHashMap<>();
+	private final Set<String> unreachable = new HashSet<>();
+
+	@BeforeEach
+	void startCluster() {
+		for (String name : List.of("a", "b", "c")) {
+			nodes.put(name, new Node(name, 10));
+		}
+	}
+
+	@Test
+	void writeOnOneInstanceEvictsItOnPeers() {
+		nodes.values().forEach(node -> node.read(1));
+
+		node("a").write(1);
+		node("a").broadcaster.publishPending();
+
+		nodes.values().forEach(node -> node.read(1));
+		node("a").verifyLoads(1, 1);
+		node("b").verifyLoads(1, 2);
+		node("c").verifyLoads(1, 2);
+	}
+
+	@Test
+	void peerThatMissedABatchFlushesOnTheNextHeartbeat() {
+		nodes.values().forEach(node -> {
+			node.read(1);
+			node.read(2);
+		});
+		// Peers have heard from a, so a jump is a lost batch rather than a first contact
+		node("a").broadcaster.publishPending();
+
+		unreachable.add("b");
+		node("a").write(1);
+		node("a").broadcaster.publishPending();
+		unreachable.clear();
+		node("a").broadcaster.publishPending();
+
+		nodes.values().forEach(node -> node.read(2));
+		node("b").verifyLoads(2, 2);
+		node("c").verifyLoads(2, 1);
+	}
+
+	@Test
+	void overflowingSenderAsksPeersToFlush() {
+		nodes.put("a", new Node("a", 1));
+		nodes.values().forEach(node -> node.read(2));
+
+		node("a").write(1);
+		node("a").write(3);
+		node("a").broadcaster.publishPending();
+
+		nodes.values().forEach(node -> node.read(2));
+		node("b").verifyLoads(2, 2);
+		node("c").verifyLoads(2, 2);
+	}
+
+	private Node node(String name) {
+		return nodes.get(name);
+	}
+
+	private static CustomerResponse customer(long id) {
+		return new CustomerResponse(id, "Ana", "García", "customer" + id + "@example.com", "+525500000000",
+				LocalDateTime.of(2024, 1, 1, 0, 0));
+	}
+
+	private final class Node {
+
+		private final CustomerRepo repo = mock(CustomerRepo.class);
+		private final CustomerCache cache;
+		private final CacheInvalidationBroadcaster broadcaster;
+
+		Node(String name, int queueCapacity) {
+			when(repo.findResponseById(anyLong())).thenAnswer(call -> customer(call.getArgument(0)));
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			cache = new CustomerCache(repo, new CustomerCacheProperties(), new CaffeineCacheManager(),
+					meterRegistry, 500);
+			broadcaster = new CacheInvalidationBroadcaster(cache, event -> {},
+					(peer, batch) -> {
+						if (unreachable.contains(peer.getInstanceId())) {
+							throw new IllegalStateException("Connection refused");
+						}
+						nodes.get(peer.getInstanceId()).broadcaster.receive(batch);
+					},
+					new StubDiscoveryClient(), SERVICE_ID, () -> name, meterRegistry,
+					Duration.ZERO, Duration.ofSeconds(5), 1000, queueCapacity);
+		}
+
+		void read(long id) {
+			cache.getById(id);
+		}
+
+		void write(long id) {
+			broadcaster.onCustomerChanged(new CustomerChangedEvent(customer(id)));
+		}
+
+		void verifyLoads(long id, int expected) {
+			verify(repo, times(expected)).findResponseById(id);
+		}
+	}
+
+	private final class StubDiscoveryClient implements DiscoveryClient {
+
+		@Override
+		public String description() {
+			return "stub";
+		}
+
+		@Override
+		public List<ServiceInstance> getInstances(String serviceId) {
+			return nodes.keySet().stream()
+					.<ServiceInstance>map(name -> new DefaultServiceInstance(name, serviceId, name, 8080, false))
+					.toList();
+		}
+
+		@Override
+		public List<String> getServices() {
+			return List.of(SERVICE_ID);
+		}
+	}
+}
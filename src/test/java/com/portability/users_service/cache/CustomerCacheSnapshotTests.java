@@ -0,0 +1,149 @@
+package com.portability.users_service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.model.dto.CacheInvalidationBatch;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.CustomerVersion;
+import com.portability.users_service.repo.CustomerRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Saves the caches of one instance and restores them into a fresh one whose
+ * database has moved on for some of the customers, then lets peers reach it.
+ */
+class CustomerCacheSnapshotTests {
+
+	private static final LocalDateTime VERSION = LocalDateTime.of(2024, 1, 1, 10, 30, 0, 123_456_000);
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void restartedInstanceServesCurrentEntriesWithoutQueries() {
+		Instance before = new Instance();
+		before.cache.getById(1L);
+		before.cache.getById(2L);
+		before.cache.getByEmail(email(3));
+		before.snapshot.save();
+
+		Instance after = new Instance();
+		when(after.repo.findVersionsByIdIn(anyCollection())).thenAnswer(call -> ((Collection<Long>) call.getArgument(0))
+				.stream()
+				.map(id -> new CustomerVersion(id, id == 2 ? VERSION.plusSeconds(1) : VERSION))
+				.toList());
+		after.snapshot.restore();
+
+		assertThat(after.cache.getById(1L)).isEqualTo(customer(1));
+		assertThat(after.cache.getByEmail(email(3))).isEqualTo(customer(3));
+		verify(after.repo, never()).findResponseById(1L);
+		verify(after.repo, never()).findResponseByEmail(anyString());
+
+		after.cache.getById(2L);
+		verify(after.repo, times(1)).findResponseById(2L);
+		assertThat(after.meterRegistry.counter("customer.cache.snapshot.entries", "outcome", "stale").count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void firstHeartbeatFromAPeerKeepsRestoredEntriesThatAreStillCurrent() {
+		Instance before = new Instance();
+		before.cache.getById(1L);
+		before.cache.getById(2L);
+		before.snapshot.save();
+
+		Instance after = new Instance();
+		Map<Long, LocalDateTime> versions = new ConcurrentHashMap<>(Map.of(1L, VERSION, 2L, VERSION));
+		when(after.repo.findVersionsByIdIn(anyCollection())).thenAnswer(call -> ((Collection<Long>) call.getArgument(0))
+				.stream()
+				.filter(versions::containsKey)
+				.map(id -> new CustomerVersion(id, versions.get(id)))
+				.toList());
+		after.snapshot.restore();
+		CacheInvalidationBroadcaster broadcaster = new CacheInvalidationBroadcaster(after.cache, event -> {},
+				(peer, batch) -> {}, mock(DiscoveryClient.class), "users-service", () -> "b", after.meterRegistry,
+				Duration.ZERO, Duration.ofSeconds(5), 1000, 10);
+
+		// A peer that has been running for a while changed customer 2 before it first reached this instance
+		versions.put(2L, VERSION.plusSeconds(1));
+		broadcaster.receive(new CacheInvalidationBatch("peer-a", 7, false, List.of(), List.of()));
+		broadcaster.receive(new CacheInvalidationBatch("peer-a", 7, false, List.of(), List.of()));
+
+		after.cache.getById(1L);
+		after.cache.getById(2L);
+		verify(after.repo, never()).findResponseById(1L);
+		verify(after.repo, times(1)).findResponseById(2L);
+		verify(after.repo, times(2)).findVersionsByIdIn(anyCollection());
+		assertThat(after.meterRegistry.counter("customer.cache.invalidation.flushes", "reason", "gap").count())
+				.isZero();
+	}
+
+	@Test
+	void damagedSnapshotLeavesCachesCold() throws IOException {
+		Instance before = new Instance();
+		before.cache.getById(1L);
+		before.snapshot.save();
+		Path file = directory.resolve("customers.bin");
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+
+		Instance after = new Instance();
+		after.snapshot.restore();
+
+		after.cache.getById(1L);
+		verify(after.repo, never()).findVersionsByIdIn(anyCollection());
+		verify(after.repo, times(1)).findResponseById(1L);
+	}
+
+	private static CustomerResponse customer(long id) {
+		return new CustomerResponse(id, "Ana", "García", email(id), "+525500000000", VERSION);
+	}
+
+	private static String email(long id) {
+		return "customer" + id + "@example.com";
+	}
+
+	private final class Instance {
+
+		private final CustomerRepo repo = mock(CustomerRepo.class);
+		private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		private final CustomerCache cache;
+		private final CustomerCacheSnapshot snapshot;
+
+		Instance() {
+			when(repo.findResponseById(anyLong())).thenAnswer(call -> customer(call.getArgument(0)));
+			when(repo.findResponseByEmail(anyString())).thenAnswer(call -> customer(
+					Long.parseLong(((String) call.getArgument(0)).replaceAll("\\D", ""))));
+			cache = new CustomerCache(repo, new CustomerCacheProperties(), new CaffeineCacheManager(),
+					meterRegistry, 500);
+			snapshot = new CustomerCacheSnapshot(cache, repo, meterRegistry,
+					directory.resolve("customers.bin").toString(), 1000, Duration.ofHours(1), 500);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.portability.users_service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.portability.users_service.config.CustomerCacheProperties;
+import com.portability.users_service.config.ReplicaStickiness;
+import com.portability.users_service.event.CustomerChangedEvent;
+import com.portability.users_service.model.dto.CustomerFilterRequest;
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.dto.PagedResponse;
+import com.portability.users_service.model.enm.CountStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Many dashboards sending the same filter at once, with a query that only
+ * finishes when the test lets it.
+ */
+class CustomerFilterResultCacheTests {
+
+	private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("id"));
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ReplicaStickiness stickiness = mock(ReplicaStickiness.class);
+	private final CustomerFilterResultCache cache = new CustomerFilterResultCache(new CustomerCacheProperties(),
+			new CaffeineCacheManager(), meterRegistry, stickiness);
+	private final AtomicInteger queries = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ExecutorService dashboards = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void stopDashboards() {
+		release.countDown();
+		dashboards.shutdownNow();
+	}
+
+	@Test
+	void identicalConcurrentFiltersShareOneQuery() throws Exception {
+		List<Future<PagedResponse<CustomerResponse>>> pages = IntStream.range(0, 8)
+				.mapToObj(i -> dashboards.submit(() -> cache.get(filter(i % 2 == 0 ? " García " : "garcía"), PAGE,
+						CountStrategy.EXACT, this::slowQuery)))
+				.toList();
+
+		await().atMost(Duration.ofSeconds(5))
+				.until(() -> meterRegistry.counter("customer.filter.queries.collapsed").count() == 7);
+		release.countDown();
+
+		PagedResponse<CustomerResponse> first = pages.getFirst().get(5, TimeUnit.SECONDS);
+		for (Future<PagedResponse<CustomerResponse>> page : pages) {
+			assertThat(page.get(5, TimeUnit.SECONDS)).isSameAs(first);
+		}
+		assertThat(queries.get()).isEqualTo(1);
+
+		cache.get(filter("garcía"), PAGE, CountStrategy.EXACT, this::slowQuery);
+		cache.get(filter("garcía"), PAGE, CountStrategy.NONE, this::slowQuery);
+		assertThat(queries.get()).isEqualTo(2);
+	}
+
+	@Test
+	void writesDropCachedPagesAndQueriesAlreadyRunning() throws Exception {
+		release.countDown();
+		cache.get(filter("garcía"), PAGE, CountStrategy.EXACT, this::slowQuery);
+		cache.onCustomerChanged(new CustomerChangedEvent(null));
+		cache.get(filter("garcía"), PAGE, CountStrategy.EXACT, this::slowQuery);
+		assertThat(queries.get()).isEqualTo(2);
+
+		CountDownLatch hold = new CountDownLatch(1);
+		Future<?> beforeWrite = dashboards.submit(() -> cache.get(filter("lópez"), PAGE, CountStrategy.EXACT,
+				() -> query(hold)));
+		await().atMost(Duration.ofSeconds(5)).until(() -> queries.get() == 3);
+		cache.invalidateAll();
+
+		cache.get(filter("lópez"), PAGE, CountStrategy.EXACT, this::slowQuery);
+		assertThat(queries.get()).isEqualTo(4);
+		hold.countDown();
+		beforeWrite.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void clientsPinnedToThePrimaryDoNotShareReplicaPages() throws Exception {
+		Future<PagedResponse<CustomerResponse>> replicaRead = dashboards.submit(() ->
+				cache.get(filter("garcía"), PAGE, CountStrategy.EXACT, this::slowQuery));
+		await().atMost(Duration.ofSeconds(5)).until(() -> queries.get() == 1);
+
+		when(stickiness.isSticky()).thenReturn(true);
+		Future<PagedResponse<CustomerResponse>> primaryRead = dashboards.submit(() ->
+				cache.get(filter("garcía"), PAGE, CountStrategy.EXACT, this::slowQuery));
+		await().atMost(Duration.ofSeconds(5)).until(() -> queries.get() == 2);
+		release.countDown();
+
+		assertThat(primaryRead.get(5, TimeUnit.SECONDS)).isNotSameAs(replicaRead.get(5, TimeUnit.SECONDS));
+		assertThat(meterRegistry.counter("customer.filter.queries.collapsed").count()).isZero();
+	}
+
+	private PagedResponse<CustomerResponse> slowQuery() {
+		return query(release);
+	}
+
+	private PagedResponse<CustomerResponse> query(CountDownLatch gate) {
+		queries.incrementAndGet();
+		try {
+			gate.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return page();
+	}
+
+	private static PagedResponse<CustomerResponse> page() {
+		return PagedResponse.<CustomerResponse>builder()
+				.content(List.of(new CustomerResponse(1L, "Ana", "García", "ana@example.com", "+525500000000", null)))
+				.totalElements(1)
+				.build();
+	}
+
+	private static CustomerFilterRequest filter(String lastName) {
+		return CustomerFilterRequest.builder().lastName(lastName).build();
+	}
+}
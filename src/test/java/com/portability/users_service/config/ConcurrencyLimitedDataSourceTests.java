@@ -0,0 +1,41 @@
+package com.portability.users_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimitedDataSourceTests {
+
+	private final DataSource target = mock(DataSource.class);
+	private final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 2, Duration.ofMillis(10));
+
+	@Test
+	void handedOutConnectionsCompareByIdentity() throws Exception {
+		Connection pooled = mock(Connection.class);
+		when(target.getConnection()).thenReturn(pooled);
+
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+
+		// Both wrap the same pooled connection but hold separate permits
+		assertThat(first).isEqualTo(first).isNotEqualTo(second).isNotEqualTo(pooled);
+		assertThat(first.hashCode()).isEqualTo(System.identityHashCode(first));
+		Set<Connection> open = new HashSet<>(Set.of(first, second));
+		assertThat(open).hasSize(2);
+
+		first.close();
+		first.close();
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+		second.close();
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,91 @@
+package com.portability.users_service.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routes through the same proxy stack as {@link ReplicaDataSourceConfig},
+ * with two stand-in databases that record which one handed out connections.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replica = mock(DataSource.class);
+
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+	private LazyConnectionDataSourceProxy dataSource;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(primary.getConnection()).thenAnswer(call -> mock(Connection.class));
+		when(replica.getConnection()).thenAnswer(call -> mock(Connection.class));
+
+		dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica,
+				new ReplicaStickiness(Duration.ofSeconds(5), 100)));
+		dataSource.setDefaultAutoCommit(true);
+		dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		readWrite = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void clearClient() {
+		ReplicaStickiness.clear();
+	}
+
+	@Test
+	void replicaServesOnlyReadOnlyTransactionsThatOptedIn() throws SQLException {
+		ReadWriteRoutingDataSource.readFromReplica(() -> query(readOnly));
+		verify(replica, times(1)).getConnection();
+
+		query(readOnly);
+		ReadWriteRoutingDataSource.readFromReplica(() -> query(readWrite));
+		verify(primary, times(2)).getConnection();
+		verify(replica, times(1)).getConnection();
+	}
+
+	@Test
+	void clientThatJustWroteReadsFromPrimary() throws SQLException {
+		ReplicaStickiness.bind("writer");
+		query(readWrite);
+		ReadWriteRoutingDataSource.readFromReplica(() -> query(readOnly));
+		verify(primary, times(2)).getConnection();
+		verify(replica, never()).getConnection();
+
+		ReplicaStickiness.bind("reader");
+		ReadWriteRoutingDataSource.readFromReplica(() -> query(readOnly));
+		verify(replica, times(1)).getConnection();
+	}
+
+	private Object query(TransactionTemplate transaction) {
+		return transaction.execute(status -> {
+			try {
+				// The lazy proxy only reaches a pool once a statement is created
+				return DataSourceUtils.getConnection(dataSource).createStatement();
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+}
@@ -0,0 +1,92 @@
+package com.portability.users_service.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.portability.users_service.config.LoadSheddingProperties;
+import com.portability.users_service.limit.AdaptiveConcurrencyLimiter.Permit;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final String ROUTE = "GET /api/customers/{id}";
+
+	private final LoadSheddingProperties properties = new LoadSheddingProperties();
+
+	@Test
+	void pointLookupsKeepHeadroomWhileScansAndBulkJobsAreShed() {
+		properties.setInitialLimit(10);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+		List<Permit> permits = new ArrayList<>();
+		permits.addAll(acquire(limiter, RequestPriority.BULK, 5));
+		assertThat(limiter.tryAcquire(RequestPriority.BULK, ROUTE)).isNull();
+		permits.addAll(acquire(limiter, RequestPriority.SCAN, 2));
+		assertThat(limiter.tryAcquire(RequestPriority.SCAN, ROUTE)).isNull();
+		permits.addAll(acquire(limiter, RequestPriority.POINT, 3));
+		assertThat(limiter.tryAcquire(RequestPriority.POINT, ROUTE)).isNull();
+
+		permits.getFirst().release();
+		permits.getFirst().release();
+		assertThat(limiter.getInflight()).isEqualTo(9);
+		assertThat(limiter.tryAcquire(RequestPriority.POINT, ROUTE)).isNotNull();
+	}
+
+	@Test
+	void slowRequestsShrinkTheLimitOncePerRoundTripAndFastOnesGrowIt() {
+		properties.setInitialLimit(20);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+		long now = System.nanoTime();
+
+		for (int i = 0; i < 10; i++) {
+			limiter.onSample(ROUTE, 2 * MILLIS, 5, false, now);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(20);
+
+		limiter.onSample(ROUTE, 50 * MILLIS, 20, false, now += 100 * MILLIS);
+		limiter.onSample(ROUTE, 50 * MILLIS, 20, false, now += MILLIS);
+		assertThat(limiter.getLimit()).isEqualTo(18);
+
+		limiter.onSample(ROUTE, 2 * MILLIS, 18, true, now += 100 * MILLIS);
+		assertThat(limiter.getLimit()).isEqualTo(16);
+
+		for (int i = 0; i < 5; i++) {
+			limiter.onSample(ROUTE, 2 * MILLIS, 16, false, now += MILLIS);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(21);
+	}
+
+	@Test
+	void cacheMissesAmongHitsDoNotShrinkTheLimitAtLowConcurrency() {
+		properties.setInitialLimit(20);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+		long now = System.nanoTime();
+
+		// Mostly cache hits in microseconds, every fifth a database miss in milliseconds
+		for (int i = 0; i < 1000; i++) {
+			long rtt = i % 5 == 4 ? 5 * MILLIS : 50_000;
+			limiter.onSample(ROUTE, rtt, 1 + i % 3, false, now += 10 * MILLIS);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(20);
+
+		// Client errors release their permit without a sample
+		limiter.tryAcquire(RequestPriority.POINT, ROUTE).release();
+		assertThat(limiter.getInflight()).isZero();
+		assertThat(limiter.getLimit()).isEqualTo(20);
+	}
+
+	private static List<Permit> acquire(AdaptiveConcurrencyLimiter limiter, RequestPriority priority, int count) {
+		List<Permit> permits = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Permit permit = limiter.tryAcquire(priority, ROUTE);
+			assertThat(permit).isNotNull();
+			permits.add(permit);
+		}
+		return permits;
+	}
+}
@@ -0,0 +1,99 @@
+package com.portability.users_service.phone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Phone-number-like sequential keys, which all land near each other before
+ * mixing, through a map sized far too small for them.
+ */
+class LongLongHashMapTests {
+
+	private static final long FIRST_PHONE = 525500000001L;
+
+	@Test
+	void keepsEveryEntryAcrossResizes() {
+		LongLongHashMap map = new LongLongHashMap(4);
+		long initialBytes = map.estimatedBytes();
+
+		for (long i = 0; i < 50_000; i++) {
+			map.put(FIRST_PHONE + i, i);
+		}
+		assertThat(map.size()).isEqualTo(50_000);
+		assertThat(map.estimatedBytes()).isGreaterThan(initialBytes);
+		for (long i = 0; i < 50_000; i++) {
+			assertThat(map.get(FIRST_PHONE + i)).isEqualTo(i);
+		}
+		assertThat(map.get(FIRST_PHONE - 1)).isEqualTo(LongLongHashMap.MISSING);
+		assertThat(map.get(FIRST_PHONE + 50_000)).isEqualTo(LongLongHashMap.MISSING);
+
+		map.put(FIRST_PHONE, 42);
+		assertThat(map.get(FIRST_PHONE)).isEqualTo(42);
+		assertThat(map.size()).isEqualTo(50_000);
+	}
+
+	@Test
+	void rejectsTheReservedKey() {
+		LongLongHashMap map = new LongLongHashMap(16);
+
+		assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(map.size()).isZero();
+		// Empty slots hold key 0, so a lookup must not mistake one for an entry
+		assertThat(map.get(0)).isEqualTo(LongLongHashMap.MISSING);
+		map.put(FIRST_PHONE, 1);
+		assertThat(map.get(0)).isEqualTo(LongLongHashMap.MISSING);
+	}
+
+	@Test
+	void readersRacingResizesSeeEveryCompletedPut() throws Exception {
+		LongLongHashMap map = new LongLongHashMap(16);
+		int keys = 200_000;
+		AtomicLong written = new AtomicLong();
+		ExecutorService threads = Executors.newFixedThreadPool(5);
+		try {
+			Future<?> writer = threads.submit(() -> {
+				for (long i = 0; i < keys; i++) {
+					map.put(FIRST_PHONE + i, i);
+					written.set(i + 1);
+				}
+			});
+			List<Future<Long>> readers = IntStream.range(0, 4).mapToObj(r -> threads.submit(() -> {
+				long wrong = 0;
+				while (!writer.isDone()) {
+					long done = written.get();
+					if (done == 0) {
+						continue;
+					}
+					long i = ThreadLocalRandom.current().nextLong(done);
+					if (map.get(FIRST_PHONE + i) != i) {
+						wrong++;
+					}
+					long pending = map.get(FIRST_PHONE + done + 1);
+					if (pending != LongLongHashMap.MISSING && pending != done + 1) {
+						wrong++;
+					}
+				}
+				return wrong;
+			})).toList();
+
+			writer.get(30, TimeUnit.SECONDS);
+			for (Future<Long> reader : readers) {
+				assertThat(reader.get(5, TimeUnit.SECONDS)).isZero();
+			}
+			assertThat(map.size()).isEqualTo(keys);
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+}
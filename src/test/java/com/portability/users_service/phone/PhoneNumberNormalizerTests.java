@@ -0,0 +1,47 @@
+package com.portability.users_service.phone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PhoneNumberNormalizerTests {
+
+	private static final long MEXICO_CITY = 525512345678L;
+
+	private final PhoneNumberNormalizer normalizer = new PhoneNumberNormalizer("52", 10);
+
+	@Test
+	void internationalAndNationalFormsShareOneKey() {
+		assertThat(normalizer.toKey("+52 55 1234 5678")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey("+525512345678")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey("0052-55-1234-5678")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey("(55) 1234 5678")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey(" 55.1234.5678 ")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey("+1 (415) 555-2671")).isEqualTo(14155552671L);
+	}
+
+	@Test
+	void oldMexicanMobilePrefixIsDropped() {
+		assertThat(normalizer.toKey("+52 1 55 1234 5678")).isEqualTo(MEXICO_CITY);
+		assertThat(normalizer.toKey("00521 55 1234 5678")).isEqualTo(MEXICO_CITY);
+		// Only the 13-digit form; a 12-digit number starting 521 is a regular one
+		assertThat(normalizer.toKey("+52 12 3456 7890")).isEqualTo(521234567890L);
+	}
+
+	@Test
+	void otherCountriesThirteenDigitNumbersAreLeftAlone() {
+		// German mobile: also 13 digits with a "1" after the country code
+		assertThat(normalizer.toKey("+49 1512 3456789")).isEqualTo(4915123456789L);
+		assertThat(normalizer.toKey("+62 812 3456 7890")).isEqualTo(6281234567890L);
+	}
+
+	@Test
+	void implausibleInputHasNoKey() {
+		assertThat(normalizer.toKey(null)).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+		assertThat(normalizer.toKey("")).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+		assertThat(normalizer.toKey("   ")).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+		assertThat(normalizer.toKey("55-CALL-NOW")).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+		assertThat(normalizer.toKey("12345")).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+		assertThat(normalizer.toKey("+1234567890123456")).isEqualTo(PhoneNumberNormalizer.NO_KEY);
+	}
+}
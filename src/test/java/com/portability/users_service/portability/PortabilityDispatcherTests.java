@@ -0,0 +1,178 @@
+package com.portability.users_service.portability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.portability.users_service.config.PortabilityDispatchProperties;
+import com.portability.users_service.model.dto.CreatePortabilityRequest;
+import com.portability.users_service.portability.PortabilityDispatcher.Submission;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Feign;
+import feign.Request;
+import feign.Retryer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Runs the dispatcher through a real Feign client against a stub
+ * portability service that throttles its first call.
+ */
+class PortabilityDispatcherTests {
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+	private final AtomicInteger calls = new AtomicInteger();
+	private volatile Duration stubDelay = Duration.ZERO;
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PortabilityDispatchProperties properties = new PortabilityDispatchProperties();
+
+	private HttpServer stub;
+	private PortabilityDispatcher dispatcher;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		stub.createContext("/api/portabilities/batch", this::handle);
+		stub.start();
+
+		properties.setBatchSize(100);
+		properties.setMaxWait(Duration.ofMillis(20));
+		properties.setConcurrency(2);
+		properties.setInitialBackoff(Duration.ofMillis(10));
+	}
+
+	@AfterEach
+	void stopStub() throws InterruptedException {
+		if (dispatcher != null) {
+			dispatcher.stop();
+		}
+		stub.stop(0);
+	}
+
+	@Test
+	void sendsEverythingInBatchesAndRetriesThrottledCalls() {
+		dispatcher = start();
+
+		assertThat(dispatcher.submit(requests(250))).isEqualTo(Submission.ACCEPTED);
+
+		await().atMost(Duration.ofSeconds(10))
+				.until(() -> batchSizes.stream().mapToInt(Integer::intValue).sum() == 250);
+		assertThat(batchSizes).allMatch(size -> size <= 100);
+		assertThat(calls.get()).isGreaterThan(batchSizes.size());
+		assertThat(meterRegistry.counter("customer.portability.retries").count()).isPositive();
+		assertThat(dispatcher.getQueueDepth()).isZero();
+		// The throttled call and its retry carry the same key
+		assertThat(idempotencyKeys).hasSize(calls.get()).doesNotContainNull();
+		assertThat(Set.copyOf(idempotencyKeys)).hasSize(batchSizes.size());
+	}
+
+	@Test
+	void readTimeoutsAreNotRetried() {
+		calls.set(1);
+		stubDelay = Duration.ofMillis(500);
+		dispatcher = start(new Request.Options(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, true));
+
+		assertThat(dispatcher.submit(requests(10))).isEqualTo(Submission.ACCEPTED);
+
+		await().atMost(Duration.ofSeconds(10))
+				.until(() -> meterRegistry.counter("customer.portability.dispatched", "outcome", "failed").count() == 10);
+		assertThat(meterRegistry.counter("customer.portability.retries").count()).isZero();
+		assertThat(idempotencyKeys).hasSize(1);
+	}
+
+	@Test
+	void stopSendsWhatWasAcceptedAndCountsWhatItDrops() throws InterruptedException {
+		calls.set(1);
+		dispatcher = start();
+		assertThat(dispatcher.submit(requests(250))).isEqualTo(Submission.ACCEPTED);
+		dispatcher.stop();
+
+		assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(250);
+		assertThat(dispatcher.submit(requests(1))).isEqualTo(Submission.STOPPED);
+
+		properties.setConcurrency(0);
+		properties.setShutdownTimeout(Duration.ofMillis(10));
+		dispatcher = start();
+		dispatcher.submit(requests(30));
+		dispatcher.stop();
+
+		assertThat(meterRegistry.counter("customer.portability.dispatched", "outcome", "failed").count()).isEqualTo(30);
+		assertThat(dispatcher.getQueueDepth()).isZero();
+	}
+
+	@Test
+	void refusesWholeSubmissionsThatDoNotFit() {
+		properties.setConcurrency(0);
+		properties.setQueueCapacity(150);
+		dispatcher = start();
+
+		assertThat(dispatcher.submit(requests(100))).isEqualTo(Submission.ACCEPTED);
+		assertThat(dispatcher.submit(requests(100))).isEqualTo(Submission.QUEUE_FULL);
+		assertThat(dispatcher.submit(requests(50))).isEqualTo(Submission.ACCEPTED);
+		assertThat(dispatcher.getQueueDepth()).isEqualTo(150);
+	}
+
+	private PortabilityDispatcher start() {
+		return start(new Request.Options());
+	}
+
+	private PortabilityDispatcher start(Request.Options options) {
+		PortabilityClient client = Feign.builder()
+				.contract(new SpringMvcContract())
+				.options(options)
+				// As in Spring Cloud OpenFeign: retries are the dispatcher's job
+				.retryer(Retryer.NEVER_RETRY)
+				.encoder((body, bodyType, template) ->
+						template.body(jsonMapper.writeValueAsBytes(body), StandardCharsets.UTF_8))
+				.target(PortabilityClient.class,
+						"http://localhost:" + stub.getAddress().getPort() + "/api/portabilities");
+		PortabilityDispatcher started = new PortabilityDispatcher(client, properties, meterRegistry);
+		started.start();
+		return started;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		List<?> batch = jsonMapper.readValue(exchange.getRequestBody(), List.class);
+		idempotencyKeys.add(exchange.getRequestHeaders().getFirst(PortabilityClient.IDEMPOTENCY_KEY));
+		if (!stubDelay.isZero()) {
+			try {
+				Thread.sleep(stubDelay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (calls.getAndIncrement() == 0) {
+			exchange.getResponseHeaders().add("Retry-After", "0");
+			exchange.sendResponseHeaders(503, -1);
+		} else {
+			batchSizes.add(batch.size());
+			exchange.sendResponseHeaders(200, -1);
+		}
+		exchange.close();
+	}
+
+	private static List<CreatePortabilityRequest> requests(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> new CreatePortabilityRequest("+52" + (5500000000L + i), (long) i))
+				.toList();
+	}
+}
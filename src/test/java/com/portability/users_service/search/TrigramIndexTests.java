@@ -0,0 +1,119 @@
+package com.portability.users_service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Names and emails built from small name lists, so most trigrams are shared
+ * by many customers, checked against a brute-force case-insensitive
+ * {@code LIKE '%term%'} over the same fields.
+ */
+class TrigramIndexTests {
+
+	private static final String[] FIRST_NAMES = { "Ana", "Luis", "María", "José", "Carmen", "Jorge", "Lucía", "Mariana" };
+	private static final String[] LAST_NAMES = { "García", "Hernández", "López", "Martínez", "Pérez", "Marín" };
+	private static final int CUSTOMERS = 2_000;
+
+	@Test
+	void candidatesIncludeEveryBruteForceMatch() {
+		TrigramIndex index = new TrigramIndex();
+		List<String[]> customers = new ArrayList<>();
+		for (int id = 0; id < CUSTOMERS; id++) {
+			String[] fields = fields(id);
+			customers.add(fields);
+			index.add(id, fields);
+		}
+
+		for (String term : List.of("ana", "MAR", "garcía", "ez12", "luis.l", "rín", "@example.com", "mariana.marín")) {
+			long[] candidates = index.candidates(term, CUSTOMERS);
+			assertThat(candidates).as(term).isNotNull().isSorted();
+			List<Long> matches = new ArrayList<>();
+			for (int id = 0; id < CUSTOMERS; id++) {
+				if (like(customers.get(id), term)) {
+					matches.add((long) id);
+				}
+			}
+			assertThat(matches).as(term).isNotEmpty();
+			assertThat(Arrays.stream(candidates).boxed().toList()).as(term).containsAll(matches);
+		}
+		assertThat(index.documents()).isEqualTo(CUSTOMERS);
+		assertThat(index.distinctTrigrams()).isPositive();
+		assertThat(index.estimatedBytes()).isPositive();
+	}
+
+	@Test
+	void shortTermsAndTermsOverTheCapAreNotServed() {
+		TrigramIndex index = new TrigramIndex();
+		for (int id = 0; id < 100; id++) {
+			index.add(id, fields(id));
+		}
+
+		assertThat(index.candidates("an", 100)).isNull();
+		assertThat(index.candidates("", 100)).isNull();
+		// Every customer's email contains it
+		assertThat(index.candidates("example", 99)).isNull();
+		assertThat(index.candidates("example", 100)).hasSize(100);
+		assertThat(index.candidates("zzz", 100)).isEmpty();
+	}
+
+	@Test
+	void changedDocumentsMatchTheirNewValueAndStayCandidatesForTheOld() {
+		TrigramIndex index = new TrigramIndex();
+		index.add(1, "Ana", "García", "ana.garcia@example.com");
+		index.add(2, "Luis", "López", "luis.lopez@example.com");
+
+		// A renamed customer is added again; the old postings are not removed
+		index.add(1, "Carmen", "García", "carmen.garcia@example.com");
+
+		assertThat(index.candidates("carmen", 10)).containsExactly(1);
+		assertThat(index.candidates("ana.", 10)).containsExactly(1);
+		assertThat(index.candidates("garcia", 10)).containsExactly(1);
+		assertThat(index.candidates("lópez", 10)).containsExactly(2);
+	}
+
+	@Test
+	void deltasOfOlderRowsKeepPostingsSortedAndDistinct() {
+		TrigramIndex index = new TrigramIndex();
+		index.add(10, "Marín");
+		index.add(30, "Marín");
+		index.add(20, "Marín");
+		index.add(20, "Marín");
+		index.add(5, "Marín");
+
+		assertThat(index.candidates("marín", 10)).containsExactly(5, 10, 20, 30);
+	}
+
+	@Test
+	void lowercasingIgnoresTheDefaultLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr"));
+		try {
+			TrigramIndex index = new TrigramIndex();
+			// Turkish lowercases I to a dotless ı
+			index.add(1, "LUIS", "PIÑA");
+
+			assertThat(index.candidates("luis", 10)).containsExactly(1);
+			assertThat(index.candidates("Piña", 10)).containsExactly(1);
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	private static String[] fields(int id) {
+		String firstName = FIRST_NAMES[id % FIRST_NAMES.length];
+		String lastName = LAST_NAMES[id / FIRST_NAMES.length % LAST_NAMES.length];
+		String email = (firstName + "." + lastName + id + "@example.com").toLowerCase(Locale.ROOT);
+		return new String[] { firstName, lastName, email };
+	}
+
+	private static boolean like(String[] fields, String term) {
+		String lowered = term.toLowerCase(Locale.ROOT);
+		return Arrays.stream(fields).anyMatch(field -> field.toLowerCase(Locale.ROOT).contains(lowered));
+	}
+}
@@ -0,0 +1,104 @@
+package com.portability.users_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.portability.users_service.model.dto.CustomerResponse;
+import com.portability.users_service.model.enm.CustomerSortField;
+
+/**
+ * Encodes cursors after a page's last customer and decodes them again, and
+ * feeds the service tokens a client could have edited or made up.
+ */
+class CustomerCursorTests {
+
+	private static final CustomerResponse LAST = new CustomerResponse(42L, "Ana", "García",
+			"ana|garcia@example.com", "+525512345678", LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123456000));
+
+	@Test
+	void everySortFieldAndDirectionSurvivesARoundTrip() {
+		for (CustomerSortField sortField : CustomerSortField.values()) {
+			for (Sort.Direction direction : Sort.Direction.values()) {
+				CustomerCursor cursor = CustomerCursor.after(sortField, direction, LAST);
+
+				CustomerCursor decoded = CustomerCursor.decode(cursor.encode());
+
+				assertThat(decoded).as(sortField + " " + direction).isEqualTo(cursor);
+				assertThat(decoded.toScrollPosition().getKeys())
+						.containsEntry(CustomerSortField.ID.getAttribute(), 42L)
+						.containsEntry(sortField.getAttribute(), sortField.valueOf(LAST));
+			}
+		}
+	}
+
+	@Test
+	void tokenIsTheBase64OfTheVersionedFields() {
+		assertThat(raw(CustomerCursor.after(CustomerSortField.ID, Sort.Direction.ASC, LAST)))
+				.isEqualTo("v1|ID|ASC|42|");
+		assertThat(raw(CustomerCursor.after(CustomerSortField.UPDATED_AT, Sort.Direction.DESC, LAST)))
+				.isEqualTo("v1|UPDATED_AT|DESC|42|2025-01-15T10:30:00.123456");
+		assertThat(raw(CustomerCursor.after(CustomerSortField.EMAIL, Sort.Direction.ASC, LAST)))
+				.isEqualTo("v1|EMAIL|ASC|42|ana|garcia@example.com");
+	}
+
+	@Test
+	void emailsContainingTheSeparatorDecodeWhole() {
+		CustomerCursor decoded = CustomerCursor.decode(
+				CustomerCursor.after(CustomerSortField.EMAIL, Sort.Direction.DESC, LAST).encode());
+
+		assertThat(decoded.lastValue()).isEqualTo("ana|garcia@example.com");
+		assertThat(decoded.lastId()).isEqualTo(42L);
+	}
+
+	@Test
+	void malformedTokensAreRejected() {
+		for (String token : malformedTokens()) {
+			assertThatThrownBy(() -> CustomerCursor.decode(token)).as(token)
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Test
+	void serviceAnswersMalformedTokensWithBadRequest() {
+		CustomerService service = new CustomerService();
+
+		for (String token : malformedTokens()) {
+			assertThatThrownBy(() -> service.getCustomersByCursor(null, "id", Sort.Direction.ASC, 20, token))
+					.as(token)
+					.isInstanceOfSatisfying(ResponseStatusException.class,
+							e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		}
+	}
+
+	private static List<String> malformedTokens() {
+		return List.of(
+				"not a cursor!",
+				"%%%",
+				token("garbage"),
+				token("v2|ID|ASC|42|"),
+				token("v1|ID|ASC|42"),
+				token("v1|FIRST_NAME|ASC|42|Ana"),
+				token("v1|ID|UP|42|"),
+				token("v1|ID|ASC|forty-two|"),
+				token("v1|UPDATED_AT|ASC|42|yesterday"),
+				token("v1|UPDATED_AT|ASC|42|2025-13-15T10:30:00.123456"));
+	}
+
+	private static String raw(CustomerCursor cursor) {
+		return new String(Base64.getUrlDecoder().decode(cursor.encode()), StandardCharsets.UTF_8);
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,224 @@
+package com.portability.users_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portability.users_service.cache.CustomerCache;
+import com.portability.users_service.model.Customer;
+import com.portability.users_service.repo.CustomerRepo;
+import com.portability.users_service.service.CustomerRegistrationBatcher.Registration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Feeds the batcher through a mocked repository whose inserts assign ids
+ * and, where a test asks for it, fail with an integrity violation.
+ */
+class CustomerRegistrationBatcherTests {
+
+	private final CustomerRepo repo = mock(CustomerRepo.class);
+	private final CustomerCache cache = mock(CustomerCache.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final List<Object> events = new CopyOnWriteArrayList<>();
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+	private final AtomicLong ids = new AtomicLong();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private CustomerRegistrationBatcher batcher;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void stubRepository() {
+		doAnswer(call -> {
+			call.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+		when(repo.saveAll(anyCollection())).thenAnswer(call -> {
+			Collection<Customer> customers = call.getArgument(0);
+			writerThreads.add(Thread.currentThread().getName());
+			batchSizes.add(customers.size());
+			customers.forEach(customer -> customer.setId(ids.incrementAndGet()));
+			return new ArrayList<>(customers);
+		});
+		when(repo.save(any(Customer.class))).thenAnswer(call -> {
+			Customer customer = call.getArgument(0);
+			customer.setId(ids.incrementAndGet());
+			return customer;
+		});
+	}
+
+	@AfterEach
+	void stopBatcher() throws InterruptedException {
+		if (batcher != null) {
+			batcher.stop();
+		}
+	}
+
+	@Test
+	void concurrentCallersShareOneInsertAndGetTheirOwnCustomer() {
+		batcher = start(10, 1, 10);
+
+		List<CompletableFuture<Registration>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			results.add(batcher.register(customer("user" + i + "@example.com")));
+		}
+
+		for (int i = 0; i < 10; i++) {
+			Registration registration = results.get(i).join();
+			assertThat(registration.isConflict()).isFalse();
+			assertThat(registration.customer().email()).isEqualTo("user" + i + "@example.com");
+		}
+		assertThat(batchSizes).containsExactly(10);
+		assertThat(results.stream().map(result -> result.join().customer().id()).distinct()).hasSize(10);
+		assertThat(events).hasSize(10);
+		assertThat(meterRegistry.summary("customer.registration.batch.size").max()).isEqualTo(10);
+	}
+
+	@Test
+	void duplicateEmailsInOneBatchConflictAfterTheFirst() {
+		batcher = start(10, 1, 3);
+
+		CompletableFuture<Registration> first = batcher.register(customer("same@example.com"));
+		CompletableFuture<Registration> second = batcher.register(customer("same@example.com"));
+		CompletableFuture<Registration> other = batcher.register(customer("other@example.com"));
+
+		assertThat(first.join().isConflict()).isFalse();
+		assertThat(second.join().isConflict()).isTrue();
+		assertThat(other.join().isConflict()).isFalse();
+		assertThat(batchSizes).containsExactly(2);
+	}
+
+	@Test
+	void emailAlreadyInTheTableConflictsWithoutAnInsert() {
+		when(repo.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+		batcher = start(10, 1, 2);
+
+		CompletableFuture<Registration> taken = batcher.register(customer("taken@example.com"));
+		CompletableFuture<Registration> free = batcher.register(customer("free@example.com"));
+
+		assertThat(taken.join().isConflict()).isTrue();
+		assertThat(free.join().isConflict()).isFalse();
+		assertThat(batchSizes).containsExactly(1);
+		assertThat(events).hasSize(1);
+	}
+
+	@Test
+	void batchViolationIsRetriedRowByRowSoOnlyTheRacedEmailConflicts() {
+		// Another writer takes the email between the existence check and the insert
+		Set<String> raced = Set.of("raced@example.com");
+		when(repo.findExistingEmails(anyCollection())).thenAnswer(call -> {
+			Collection<String> emails = call.getArgument(0);
+			return emails.size() == 1 ? emails.stream().filter(raced::contains).toList() : List.of();
+		});
+		when(repo.saveAll(anyCollection())).thenThrow(new DataIntegrityViolationException("customers_email_key"));
+		when(repo.save(any(Customer.class))).thenAnswer(call -> {
+			Customer customer = call.getArgument(0);
+			if (raced.contains(customer.getEmail())) {
+				throw new DataIntegrityViolationException("customers_email_key");
+			}
+			customer.setId(ids.incrementAndGet());
+			return customer;
+		});
+		batcher = start(10, 1, 3);
+
+		CompletableFuture<Registration> before = batcher.register(customer("before@example.com"));
+		CompletableFuture<Registration> racedResult = batcher.register(customer("raced@example.com"));
+		CompletableFuture<Registration> after = batcher.register(customer("after@example.com"));
+
+		assertThat(before.join().isConflict()).isFalse();
+		assertThat(racedResult.join().isConflict()).isTrue();
+		assertThat(after.join().isConflict()).isFalse();
+		assertThat(events).hasSize(2);
+	}
+
+	@Test
+	void violationsOtherThanATakenEmailFailTheCaller() {
+		DataIntegrityViolationException violation = new DataIntegrityViolationException("customers_phone_number_check");
+		when(repo.saveAll(anyCollection())).thenThrow(violation);
+		when(repo.save(any(Customer.class))).thenThrow(violation);
+		batcher = create(10, 1, 10);
+
+		CompletableFuture<Registration> result = batcher.register(customer("user@example.com"));
+
+		assertThatThrownBy(result::join)
+				.isInstanceOf(CompletionException.class)
+				.hasCause(violation);
+		verify(cache, never()).put(any());
+	}
+
+	@Test
+	void writesOnTheCallersThreadWhenStoppedOrFullAndDrainsOnStop() throws Exception {
+		// No flushers, so whatever fits in the queue stays there until stop()
+		batcher = start(1, 0, 10);
+
+		CompletableFuture<Registration> queued = batcher.register(customer("queued@example.com"));
+		CompletableFuture<Registration> overflow = batcher.register(customer("overflow@example.com"));
+
+		assertThat(queued).isNotDone();
+		assertThat(overflow).isCompleted();
+		assertThat(writerThreads).containsExactly(Thread.currentThread().getName());
+
+		batcher.stop();
+		assertThat(queued.get(1, TimeUnit.SECONDS).isConflict()).isFalse();
+
+		CompletableFuture<Registration> late = batcher.register(customer("late@example.com"));
+		assertThat(late).isCompleted();
+		assertThat(batchSizes).containsExactly(1, 1, 1);
+	}
+
+	private CustomerRegistrationBatcher start(int queueCapacity, int flushers, int maxBatchSize) {
+		CustomerRegistrationBatcher started = create(queueCapacity, flushers, maxBatchSize);
+		started.start();
+		return started;
+	}
+
+	@SuppressWarnings("unchecked")
+	private CustomerRegistrationBatcher create(int queueCapacity, int flushers, int maxBatchSize) {
+		CustomerRegistrationBatcher created = new CustomerRegistrationBatcher(repo, cache,
+				mock(ObjectProvider.class, call -> null), transactionTemplate, events::add, meterRegistry,
+				queueCapacity);
+		ReflectionTestUtils.setField(created, "maxBatchSize", maxBatchSize);
+		// Long enough that a test's registrations always land in one batch
+		ReflectionTestUtils.setField(created, "maxWait", Duration.ofSeconds(1));
+		ReflectionTestUtils.setField(created, "flusherCount", flushers);
+		return created;
+	}
+
+	private static Customer customer(String email) {
+		Customer customer = new Customer();
+		customer.setFirstName("Ana");
+		customer.setLastName("Lopez");
+		customer.setEmail(email);
+		customer.setPhoneNumber("5512345678");
+		return customer;
+	}
+}